@@ -0,0 +1,91 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.json.JsonConfig;
+import ru.practicum.shareit.json.JsonProperties;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тестовые сущности для бенчмарков: детерминированные, без обращения к БД.
+ */
+public final class BenchmarkData {
+
+    public static final LocalDateTime NOW = LocalDateTime.of(2024, 8, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    // ObjectMapper с теми же модулями и настройками дат, что у приложения: Spring Boot пишет даты строками ISO.
+    // mode - default или fast (shareit.json.fast)
+    public static ObjectMapper objectMapper(String mode) {
+        JsonProperties properties = new JsonProperties();
+        properties.setFast("fast".equals(mode));
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        JsonConfig.customize(builder, properties);
+        return builder.build();
+    }
+
+    public static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("user" + id)
+                .email("user" + id + "@shareit.ru")
+                .build();
+    }
+
+    public static List<Item> items(int size) {
+        User owner = user(1);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            items.add(Item.builder()
+                    .id(i)
+                    .name("Вещь " + i)
+                    .description("Описание вещи номер " + i)
+                    .owner(owner)
+                    .available(i % 3 != 0)
+                    .build());
+        }
+        return items;
+    }
+
+    public static List<Booking> bookings(int size) {
+        List<Item> items = items(Math.max(1, size / 10));
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            bookings.add(Booking.builder()
+                    .id((long) i)
+                    .start(NOW.plusHours(i))
+                    .end(NOW.plusHours(i + 2))
+                    .status(BookingStatus.values()[i % BookingStatus.values().length])
+                    .bookingItem(items.get(i % items.size()))
+                    .bookingAuthor(user(i % 50 + 2))
+                    .build());
+        }
+        return bookings;
+    }
+
+    public static List<Comment> comments(Item item, int size) {
+        List<Comment> comments = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            comments.add(Comment.builder()
+                    .id(item.getId() * 1000 + i)
+                    .text("Комментарий " + i + " к вещи " + item.getId())
+                    .item(item)
+                    .author(user(i % 50 + 2))
+                    .created(NOW.minusDays(i))
+                    .build());
+        }
+        return comments;
+    }
+}
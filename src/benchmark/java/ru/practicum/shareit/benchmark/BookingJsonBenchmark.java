@@ -0,0 +1,56 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapperImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списка BookingDto в JSON, как в ответах GET /bookings и GET /bookings/owner:
+ * обычный ObjectMapper против режима shareit.json.fast.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    @Param({"default", "fast"})
+    private String mode;
+
+    private ObjectMapper objectMapper;
+    private List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper(mode);
+        BookingMapperImpl bookingMapper = new BookingMapperImpl();
+        bookings = BenchmarkData.bookings(size).stream()
+                .map(bookingMapper::toDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeBookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+}
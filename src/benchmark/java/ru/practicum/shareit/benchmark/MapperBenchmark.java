@@ -0,0 +1,70 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.mapper.BookingMapperImpl;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.mapper.ItemListMapperImpl;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей в DTO сгенерированными MapStruct мапперами - выполняется на каждый запрос списка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final BookingMapperImpl bookingMapper = new BookingMapperImpl();
+    private final ItemListMapperImpl itemListMapper = new ItemListMapperImpl();
+
+    private List<Booking> bookings;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        // вне Spring-контекста зависимость маппера списков внедряется вручную
+        Field itemMapper = Objects.requireNonNull(ReflectionUtils.findField(ItemListMapperImpl.class, "itemMapper"));
+        ReflectionUtils.makeAccessible(itemMapper);
+        ReflectionUtils.setField(itemMapper, itemListMapper, new ItemMapperImpl());
+
+        bookings = BenchmarkData.bookings(size);
+        items = BenchmarkData.items(size);
+    }
+
+    @Benchmark
+    public void bookingToDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(bookingMapper.toDto(booking));
+        }
+    }
+
+    @Benchmark
+    public List<ItemBookTimeDto> itemsToBookingTimeDto() {
+        return itemListMapper.toListBookingTimeDto(items);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.BenchmarkData;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Свободные интервалы вещи (GET /items/{id}/availability) по закешированным занятым периодам:
+ * окно в месяц и в год при разном числе бронирований на два года вперед.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemAvailabilityBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int bookings;
+
+    @Param({"30", "365"})
+    private int windowDays;
+
+    private BusyIntervals busy;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup
+    public void setUp() {
+        // бронирования на два года вперед равномерно, без пересечений
+        long stepMinutes = 2L * 365 * 24 * 60 / bookings;
+        List<BookingIntervalDto> intervals = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            LocalDateTime start = BenchmarkData.NOW.plusMinutes(i * stepMinutes);
+            intervals.add(new BookingIntervalDto(1L, start, start.plusMinutes(stepMinutes / 2)));
+        }
+        busy = BusyIntervals.merge(intervals);
+        // окно во второй половине периода: двоичный поиск пропускает все более ранние бронирования
+        from = BenchmarkData.NOW.plusDays(365);
+        to = from.plusDays(windowDays);
+    }
+
+    @Benchmark
+    public List<AvailabilityIntervalDto> free() {
+        return busy.free(from, to);
+    }
+}
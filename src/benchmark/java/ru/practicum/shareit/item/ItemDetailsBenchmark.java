@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.BenchmarkData;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка списка вещей владельца (GET /items): даты бронирований и комментарии раскладываются по вещам.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemDetailsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    @Param({"0", "5"})
+    private int commentsPerItem;
+
+    private final ItemMapperImpl itemMapper = new ItemMapperImpl();
+
+    private List<Item> ownerItems;
+    private Map<Long, ItemBookingDatesDto> datesByItem;
+    private Map<Long, List<CommentDto>> commentsByItem;
+
+    @Setup
+    public void setUp() {
+        ownerItems = BenchmarkData.items(items);
+        datesByItem = new HashMap<>();
+        commentsByItem = new HashMap<>();
+        for (Item item : ownerItems) {
+            // у половины вещей нет бронирований
+            if (item.getId() % 2 == 0) {
+                datesByItem.put(item.getId(), new ItemBookingDatesDto(item.getId(),
+                        BenchmarkData.NOW.minusDays(1), BenchmarkData.NOW.plusDays(1), BenchmarkData.NOW.plusDays(2)));
+            }
+            commentsByItem.put(item.getId(), BenchmarkData.comments(item, commentsPerItem).stream()
+                    .map(itemMapper::toCommentDto)
+                    .toList());
+        }
+    }
+
+    @Benchmark
+    public List<ItemBookTimeDto> setDatesAndComments() {
+        List<ItemBookTimeDto> result = new ArrayList<>(ownerItems.size());
+        for (Item item : ownerItems) {
+            ItemBookTimeDto dto = itemMapper.toBookingTimeDto(item);
+            ItemServiceImpl.setDatesAndComments(dto, datesByItem.get(dto.getId()),
+                    commentsByItem.getOrDefault(dto.getId(), new ArrayList<>()));
+            result.add(dto);
+        }
+        return result;
+    }
+}
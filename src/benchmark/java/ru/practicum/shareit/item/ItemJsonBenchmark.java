@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.BenchmarkData;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списка карточек вещей с датами бронирований и комментариями, как в ответе GET /items:
+ * обычный ObjectMapper против режима shareit.json.fast.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    @Param({"5"})
+    private int commentsPerItem;
+
+    @Param({"default", "fast"})
+    private String mode;
+
+    private ObjectMapper objectMapper;
+    private List<ItemBookTimeDto> cards;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper(mode);
+        ItemMapperImpl itemMapper = new ItemMapperImpl();
+        cards = new ArrayList<>(items);
+        for (Item item : BenchmarkData.items(items)) {
+            ItemBookTimeDto card = itemMapper.toBookingTimeDto(item);
+            ItemServiceImpl.setDatesAndComments(card, new ItemBookingDatesDto(item.getId(),
+                            BenchmarkData.NOW.minusDays(1), BenchmarkData.NOW.plusDays(1), BenchmarkData.NOW.plusDays(2)),
+                    new ArrayList<>(BenchmarkData.comments(item, commentsPerItem).stream()
+                            .map(itemMapper::toCommentDto)
+                            .toList()));
+            cards.add(card);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeItemCards() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cards);
+    }
+}
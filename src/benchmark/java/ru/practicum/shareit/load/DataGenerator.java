@@ -0,0 +1,93 @@
+package ru.practicum.shareit.load;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Заполняет БД синтетическими данными средствами самого PostgreSQL (generate_series),
+ * поэтому миллионы строк вставляются без передачи их через JDBC.
+ * <p>
+ * Бронирования одной вещи идут подряд слотами по 3 дня длиной 2 дня и не пересекаются,
+ * половина слотов в прошлом, половина в будущем; статусы перебирают все значения BookingStatus.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataGenerator {
+
+    static final String[] NAMES = {"Дрель", "Отвертка", "Пила", "Лестница", "Палатка", "Велосипед", "Проектор", "Гитара"};
+    static final String[] ADJECTIVES = {"аккумуляторная", "крестовая", "садовая", "раскладная",
+                                        "туристическая", "горная", "портативная", "акустическая"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestConfig config;
+
+    public void generate() {
+        long owners = config.getOwners();
+        long bookers = config.getUsers() - owners;
+        long slots = (config.getBookings() + config.getItems() - 1) / config.getItems();
+
+        execute("users", "INSERT INTO users (id, user_name, email) " +
+                "SELECT g, 'user' || g, 'user' || g || '@shareit.ru' " +
+                "FROM generate_series(1, " + config.getUsers() + ") AS g");
+
+        execute("items", "INSERT INTO items (id, item_name, item_description, owner_id, available) " +
+                "SELECT g, (" + array(NAMES) + ")[1 + g % 8] || ' ' || g, " +
+                "(" + array(ADJECTIVES) + ")[1 + (g / 8) % 8] || ' вещь для аренды', " +
+                "1 + g % " + owners + ", g % 10 <> 0 " +
+                "FROM generate_series(1, " + config.getItems() + ") AS g");
+
+        execute("bookings", "INSERT INTO bookings (id, item_id, author_id, start_booking, finish_booking, booking_status) " +
+                "SELECT g, s.item_id, " + (owners + 1) + " + g % " + bookers + ", s.start_booking, " +
+                "s.start_booking + interval '2 days', " +
+                "(array['WAITING', 'APPROVED', 'REJECTED', 'COMPLETED', 'CANCELED'])[1 + g % 5] " +
+                "FROM generate_series(1, " + config.getBookings() + ") AS g " +
+                "CROSS JOIN LATERAL (SELECT 1 + (g - 1) % " + config.getItems() + " AS item_id, " +
+                "date_trunc('hour', localtimestamp) " +
+                "+ ((g - 1) / " + config.getItems() + " - " + slots / 2 + ") * interval '3 days' " +
+                "+ ((g - 1) % 24) * interval '1 hour' AS start_booking) AS s");
+
+        execute("comments", "INSERT INTO comments (id, item_id, author_id, created, text) " +
+                "SELECT g, 1 + g % " + config.getItems() + ", " + (owners + 1) + " + g % " + bookers + ", " +
+                "localtimestamp - (g % 365) * interval '1 day', 'Комментарий ' || g " +
+                "FROM generate_series(1, " + config.getComments() + ") AS g");
+
+        // запрос на каждые 4 вещи от арендаторов; каждая восьмая вещь добавлена в ответ на запрос
+        long requests = Math.max(1, config.getItems() / 4);
+        execute("requests", "INSERT INTO requests (id, description, requestor_id, created) " +
+                "SELECT g, 'Нужна ' || (" + array(NAMES) + ")[1 + g % 8], " + (owners + 1) + " + g % " + bookers + ", " +
+                "localtimestamp - (g % 365) * interval '1 day' " +
+                "FROM generate_series(1, " + requests + ") AS g");
+        execute("items", "UPDATE items SET request_id = id / 8 WHERE id % 8 = 0");
+
+        // идентификаторы заданы явно - сдвигаем последовательности за них
+        for (String table : new String[]{"users", "items", "bookings", "comments", "requests"}) {
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "(SELECT coalesce(max(id), 0) + 1 FROM " + table + "), false)");
+        }
+        // часть прошедших бронирований уже перенесена в архив, как это делает BookingLifecycleJob;
+        // после сдвига последовательности, чтобы новые бронирования не заняли идентификаторы архивных
+        execute("bookings_archive", "WITH moved AS (DELETE FROM bookings " +
+                "WHERE id % 2 = 0 AND booking_status IN ('COMPLETED', 'CANCELED') " +
+                "AND finish_booking < localtimestamp " +
+                "RETURNING id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+                "INSERT INTO bookings_archive " +
+                "(id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+                "SELECT * FROM moved");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void execute(String table, String sql) {
+        long started = System.nanoTime();
+        int rows = jdbcTemplate.update(sql);
+        log.info("Generated {} rows in {}: {} ms", rows, table, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static String array(String[] values) {
+        StringBuilder sql = new StringBuilder("array[");
+        for (int i = 0; i < values.length; i++) {
+            sql.append(i == 0 ? "'" : ", '").append(values[i]).append("'");
+        }
+        return sql.append("]").toString();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Нагрузочный прогон приложения целиком: встроенный PostgreSQL, синтетические данные,
+ * замкнутая нагрузка на списки бронирований, вещей и поиск, отчет p50/p99 и пропускной способности.
+ * <p>
+ * Запуск: mvn -P benchmark compile exec:exec@load-test -Dload.args="bookings=2000000 clients=32"
+ * <p>
+ * Сравнение режимов при 5000 одновременных клиентов:
+ * -Dload.args="clients=5000 threads=platform" и -Dload.args="clients=5000 threads=virtual"
+ * <p>
+ * Сравнение блокирующего и неблокирующего чтения списков (хвост задержек p99 и max):
+ * -Dload.args="clients=5000 reads=blocking" и -Dload.args="clients=5000 reads=reactive"
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final String DATABASE = "shareit";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        log.info("Load test configuration: {}", config);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                // поиск по кириллице требует UTF-8 локали символов
+                statement.execute("CREATE DATABASE " + DATABASE + " TEMPLATE template0 ENCODING 'UTF8' " +
+                        "LC_COLLATE 'C.utf8' LC_CTYPE 'C.utf8'");
+            }
+
+            // аргументы командной строки приоритетнее application.yaml
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class).run(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", DATABASE),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres",
+                    "--server.port=0",
+                    "--spring.threads.virtual.enabled=" + config.isVirtualThreads(),
+                    "--shareit.reactive.enabled=" + config.isReactiveReads(),
+                    "--shareit.reactive.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/" + DATABASE,
+                    "--spring.main.banner-mode=off",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.format_sql=false",
+                    "--logging.level.ru.practicum.shareit=INFO",
+                    "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO",
+                    "--logging.level.org.springframework.transaction.interceptor=INFO")) {
+
+                new DataGenerator(context.getBean(JdbcTemplate.class), config).generate();
+
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                Workload workload = new Workload(config, port);
+                workload.run();
+                workload.report(System.out);
+            }
+        }
+    }
+}
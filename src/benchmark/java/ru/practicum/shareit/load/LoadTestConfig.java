@@ -0,0 +1,65 @@
+package ru.practicum.shareit.load;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного прогона в виде key=value аргументов командной строки,
+ * например: users=20000 items=200000 bookings=2000000 clients=32 duration=60 threads=virtual reads=reactive.
+ */
+@Getter
+@ToString
+public class LoadTestConfig {
+
+    private final long users;
+    private final long items;
+    private final long bookings;
+    private final long comments;
+    private final int clients;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int pageSize;
+    private final Duration requestTimeout;
+    private final boolean virtualThreads;
+    private final boolean reactiveReads;
+
+    private LoadTestConfig(Map<String, String> args) {
+        users = Long.parseLong(args.getOrDefault("users", "20000"));
+        items = Long.parseLong(args.getOrDefault("items", "200000"));
+        bookings = Long.parseLong(args.getOrDefault("bookings", "2000000"));
+        comments = Long.parseLong(args.getOrDefault("comments", "500000"));
+        clients = Integer.parseInt(args.getOrDefault("clients", "32"));
+        warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "15")));
+        duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration", "60")));
+        pageSize = Integer.parseInt(args.getOrDefault("size", "20"));
+        requestTimeout = Duration.ofSeconds(Long.parseLong(args.getOrDefault("timeout", "60")));
+        // режим обработки запросов приложением: platform (по умолчанию) или virtual
+        virtualThreads = "virtual".equalsIgnoreCase(args.getOrDefault("threads", "platform"));
+        // чтение горячих списков: blocking (по умолчанию) или reactive - NDJSON через R2DBC
+        reactiveReads = "reactive".equalsIgnoreCase(args.getOrDefault("reads", "blocking"));
+        if (users < 2 || items < 1) {
+            throw new IllegalArgumentException("Нужны хотя бы 2 пользователя и 1 вещь: users=" + users + ", items=" + items);
+        }
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Аргумент должен иметь вид key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+
+    // первая половина пользователей - владельцы вещей, вторая - арендаторы
+    public long getOwners() {
+        return users / 2;
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Замкнутая нагрузка: каждый клиент отправляет следующий запрос сразу после ответа на предыдущий,
+ * выбирая эндпоинт по кругу. Задержки пишутся в HdrHistogram отдельно по каждому эндпоинту,
+ * запросы периода прогрева не учитываются. Клиенты работают на виртуальных потоках,
+ * чтобы тысячи одновременных клиентов не ограничивались ресурсами самого генератора нагрузки.
+ * При reads=reactive списки и карточка вещи запрашиваются в формате NDJSON - неблокирующим путем.
+ */
+@Slf4j
+public class Workload {
+
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+    private final LoadTestConfig config;
+    private final long maxLatencyMicros;
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints = new LinkedHashMap<>();
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+
+    public Workload(LoadTestConfig config, int port) {
+        this.config = config;
+        this.maxLatencyMicros = config.getRequestTimeout().toNanos() / 1000;
+        this.baseUrl = "http://localhost:" + port;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        endpoints.put("GET /bookings", random -> list("/bookings?state=" + state(random) +
+                "&size=" + config.getPageSize(), booker(random)));
+        endpoints.put("GET /bookings/owner", random -> list("/bookings/owner?state=" + state(random) +
+                "&size=" + config.getPageSize(), owner(random)));
+        endpoints.put("GET /items", random -> list("/items", owner(random)));
+        endpoints.put("GET /items/{id}", random -> list("/items/" + random.nextLong(1, config.getItems() + 1),
+                booker(random)));
+        endpoints.put("GET /items/search", random -> get("/items/search?size=" + config.getPageSize() + "&text=" +
+                URLEncoder.encode(searchText(random), StandardCharsets.UTF_8), booker(random)).build());
+        for (String endpoint : endpoints.keySet()) {
+            latencies.put(endpoint, new ConcurrentHistogram(maxLatencyMicros, 3));
+            errors.put(endpoint, new AtomicLong());
+        }
+    }
+
+    public void run() throws InterruptedException {
+        long measureFrom = System.nanoTime() + config.getWarmup().toNanos();
+        long stopAt = measureFrom + config.getDuration().toNanos();
+        List<String> names = new ArrayList<>(endpoints.keySet());
+
+        log.info("Running {} clients against {} threads, {} reads: warmup {}, measurement {}", config.getClients(),
+                config.isVirtualThreads() ? "virtual" : "platform", config.isReactiveReads() ? "reactive" : "blocking",
+                config.getWarmup(), config.getDuration());
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        for (int c = 0; c < config.getClients(); c++) {
+            int offset = c;
+            clients.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long n = offset; System.nanoTime() < stopAt; n++) {
+                    String endpoint = names.get((int) (n % names.size()));
+                    HttpRequest request = endpoints.get(endpoint).apply(random);
+                    long started = System.nanoTime();
+                    boolean failed = !send(request);
+                    long finished = System.nanoTime();
+                    if (started >= measureFrom && finished <= stopAt) {
+                        latencies.get(endpoint).recordValue(
+                                Math.min(maxLatencyMicros, TimeUnit.NANOSECONDS.toMicros(finished - started)));
+                        if (failed) {
+                            errors.get(endpoint).incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(config.getWarmup().plus(config.getDuration()).toSeconds() + 60, TimeUnit.SECONDS)) {
+            clients.shutdownNow();
+        }
+    }
+
+    public void report(PrintStream out) {
+        double seconds = config.getDuration().toMillis() / 1000.0;
+        out.printf("%-22s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50, ms", "p99, ms", "max, ms");
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf("%-22s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    errors.get(entry.getKey()).get(),
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    private boolean send(HttpRequest request) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (Exception e) {
+            log.warn("Request {} failed: {}", request.uri(), e.getMessage());
+            return false;
+        }
+    }
+
+    // эндпоинты, у которых есть неблокирующий вариант
+    private HttpRequest list(String path, long userId) {
+        HttpRequest.Builder request = get(path, userId);
+        if (config.isReactiveReads()) {
+            request.header("Accept", "application/x-ndjson");
+        }
+        return request.build();
+    }
+
+    private HttpRequest.Builder get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .timeout(config.getRequestTimeout())
+                .GET();
+    }
+
+    private long owner(ThreadLocalRandom random) {
+        return random.nextLong(1, config.getOwners() + 1);
+    }
+
+    private long booker(ThreadLocalRandom random) {
+        return random.nextLong(config.getOwners() + 1, config.getUsers() + 1);
+    }
+
+    private static String state(ThreadLocalRandom random) {
+        return STATES[random.nextInt(STATES.length)];
+    }
+
+    // название, прилагательное или префикс - как вводят в строку поиска
+    private static String searchText(ThreadLocalRandom random) {
+        String word = random.nextBoolean()
+                ? DataGenerator.NAMES[random.nextInt(DataGenerator.NAMES.length)]
+                : DataGenerator.ADJECTIVES[random.nextInt(DataGenerator.ADJECTIVES.length)];
+        return random.nextInt(4) == 0 ? word.substring(0, 4) : word;
+    }
+}
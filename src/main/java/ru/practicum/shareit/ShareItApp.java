@@ -2,8 +2,18 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.retry.annotation.EnableRetry;
 
-@SpringBootApplication
+// кеш стоит снаружи повторов и транзакций: попадание не открывает транзакцию,
+// а инвалидация выполняется уже после фиксации изменений
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 2)
+@EnableRetry
+// пул R2DBC создается только для неблокирующего чтения (ReactiveReadConfig),
+// бин ConnectionFactory из автоконфигурации отключил бы DataSource для JPA
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class ShareItApp {
 
     public static void main(String[] args) {
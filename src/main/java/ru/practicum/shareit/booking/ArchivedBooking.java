@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование, перенесенное фоновой задачей в архив. Строки пишет только сама задача,
+ * приложение их лишь читает - для списков с includeArchived и проверки права на комментарий.
+ */
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "bookings_archive")
+@ToString(of = "id")
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(name = "start_booking")
+    private LocalDateTime start;
+
+    @Column(name = "finish_booking")
+    private LocalDateTime end;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "booking_status")
+    private BookingStatus status;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item bookingItem;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_id", nullable = false)
+    private User bookingAuthor;
+
+    private LocalDateTime archived;
+
+}
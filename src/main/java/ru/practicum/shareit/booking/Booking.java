@@ -37,12 +37,15 @@ public class Booking {
     @Column(name = "booking_status")
     private BookingStatus status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item bookingItem;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User bookingAuthor;
 
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Архив давно завершенных бронирований. Списки архивных бронирований выбираются через BookingQueryRepository.
+ */
+public interface BookingArchiveRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Порция завершенных и отмененных бронирований, закончившихся до before, переносится в архив одним запросом.
+    // Последнее завершившееся бронирование каждой вещи остается в bookings: по нему считается lastBooking
+    // карточки вещи. Заблокированные строки пропускаются, возвращаются вещи перенесенных бронирований
+    @Query(value = "WITH moved AS (DELETE FROM bookings WHERE id IN (SELECT b.id FROM bookings AS b " +
+            "WHERE b.booking_status IN ('COMPLETED', 'CANCELED') AND b.finish_booking < :before " +
+            "AND EXISTS (SELECT 1 FROM bookings AS n WHERE n.item_id = b.item_id " +
+            "AND n.finish_booking > b.finish_booking AND n.finish_booking < :before) " +
+            "ORDER BY b.finish_booking LIMIT :limit FOR UPDATE OF b SKIP LOCKED) " +
+            "RETURNING id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+            "INSERT INTO bookings_archive " +
+            "(id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+            "SELECT id, item_id, author_id, start_booking, finish_booking, booking_status, version FROM moved " +
+            "RETURNING item_id ", nativeQuery = true)
+    List<Long> moveFinished(LocalDateTime before, int limit);
+
+    // есть ли у автора архивное бронирование вещи: все они уже начались, значит, вещью он пользовался
+    boolean existsByBookingAuthorIdAndBookingItemId(Long authorId, Long itemId);
+
+}
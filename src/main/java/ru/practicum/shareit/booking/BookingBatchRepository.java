@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.util.List;
+
+/**
+ * Пакетная вставка бронирований одним JDBC-батчем. Hibernate не группирует вставки
+ * в таблицы с IDENTITY-ключом, поэтому вставка выполняется в обход контекста персистентности.
+ */
+public interface BookingBatchRepository {
+
+    // после вставки бронированиям проставляются сгенерированные идентификаторы
+    void insertAll(List<Booking> bookings);
+
+}
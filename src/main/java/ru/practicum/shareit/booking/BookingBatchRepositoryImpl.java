@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class BookingBatchRepositoryImpl implements BookingBatchRepository {
+
+    private static final String INSERT = "INSERT INTO bookings " +
+            "(item_id, author_id, start_booking, finish_booking, booking_status) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        ps.setLong(1, booking.getBookingItem().getId());
+                        ps.setLong(2, booking.getBookingAuthor().getId());
+                        ps.setTimestamp(3, Timestamp.valueOf(booking.getStart()));
+                        ps.setTimestamp(4, Timestamp.valueOf(booking.getEnd()));
+                        ps.setString(5, booking.getStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            bookings.get(i).setVersion(0L);
+        }
+    }
+}
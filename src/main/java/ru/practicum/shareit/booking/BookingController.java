@@ -1,16 +1,30 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreatingDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.exception.InterruptionRuleException;
+import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.version.ResourceVersion;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -24,6 +38,8 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService service;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     // Добавление бронирования
     @PostMapping
@@ -35,6 +51,17 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(returnedBooking);
     }
 
+    // Пакетное добавление бронирований. Результат возвращается по каждой записи в порядке запроса:
+    // созданное бронирование либо причина отказа
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> addBookings(@RequestHeader("X-Sharer-User-Id") String bookerId,
+                                                                   @RequestBody List<BookingCreatingDto> bookings) {
+        log.info("==> POST/bookings/batch <== TRY TO ADD {} BOOKINGS", bookings.size());
+        List<BookingBatchResultDto> results = service.createBatch(bookerId, bookings);
+        log.info("==> POST/bookings/batch <== ADD {} BOOKINGS COMPLETE", bookings.size());
+        return ResponseEntity.ok().body(results);
+    }
+
     // Изменение статуса по бронированию. Изменять статус может только владелец вещи
     @PatchMapping("/{bookingId}")
     public ResponseEntity<BookingDto> changeStatus(@RequestHeader("X-Sharer-User-Id") String ownerId,
@@ -53,27 +80,92 @@ public class BookingController {
         return ResponseEntity.ok().body(returnedBooking);
     }
 
-    // получение бронирования по id
+    // получение бронирования по id. При совпадении If-None-Match / If-Modified-Since - 304: выполняется только
+    // запрос версий по первичному ключу, бронирование с вещью и автором не загружается
     @GetMapping("{bookingId}")
     public ResponseEntity<BookingDto> getById(@RequestHeader("X-Sharer-User-Id") String ownerId,
-                                              @PathVariable long bookingId) {
+                                              @PathVariable long bookingId,
+                                              WebRequest request) {
         log.info("==> GET bookings/{} <==", bookingId);
+        ResourceVersion version = service.getVersion(ownerId, bookingId);
+        if (version.checkNotModified(request)) {
+            return null;
+        }
         return ResponseEntity.ok().body(service.getById(ownerId, bookingId));
     }
 
-    // Получение списка всех бронирований текущего пользователя
+    // Получение списка всех бронирований текущего пользователя, при указании itemId - только по этой вещи.
+    // При указании size возвращается одна страница, курсор следующей - в заголовке X-Next-Cursor.
+    // includeArchived=true добавляет к состояниям ALL и PAST бронирования, перенесенные в архив
     @GetMapping
     public ResponseEntity<List<BookingDto>> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") String bookerStr,
-                                                              @RequestParam(defaultValue = "ALL") String state) {
-        log.info("==> GET bookings?state={} <==", state);
-        return ResponseEntity.ok().body(service.getBookingsByBooker(bookerStr, state));
+                                                              @RequestParam(defaultValue = "ALL") String state,
+                                                              @RequestParam(required = false) Long itemId,
+                                                              @RequestParam(defaultValue = "false")
+                                                              boolean includeArchived,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        log.info("==> GET bookings?state={}&itemId={}&size={} <==", state, itemId, size);
+        return toResponse(service.getBookingsByBooker(bookerStr, state, itemId, includeArchived, cursor, size));
     }
 
-    // Получение списка бронирований для всех вещей текущего пользователя. Для владельца хотя бы одной вещи
+    // Получение списка бронирований для всех вещей текущего пользователя (или одной вещи при указании itemId).
+    // Для владельца хотя бы одной вещи
     @GetMapping("/owner")
     public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") String ownerId,
-                                                               @RequestParam(defaultValue = "ALL") String state) {
-        log.info("==> GET bookings/owner?state={} <==", state);
-        return ResponseEntity.ok().body(service.getBookingsByOwner(ownerId, state));
+                                                               @RequestParam(defaultValue = "ALL") String state,
+                                                               @RequestParam(required = false) Long itemId,
+                                                               @RequestParam(defaultValue = "false")
+                                                               boolean includeArchived,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        log.info("==> GET bookings/owner?state={}&itemId={}&size={} <==", state, itemId, size);
+        return toResponse(service.getBookingsByOwner(ownerId, state, itemId, includeArchived, cursor, size));
+    }
+
+    // Потоковая выгрузка всей истории бронирований пользователя в формате NDJSON (по одному объекту на строку)
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByUser(@RequestHeader("X-Sharer-User-Id") String bookerStr) {
+        log.info("==> GET bookings/export <== user id={}", bookerStr);
+        return export(bookerStr, false);
+    }
+
+    // Потоковая выгрузка всех бронирований вещей владельца в формате NDJSON
+    @GetMapping(value = "/export/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader("X-Sharer-User-Id") String ownerId) {
+        log.info("==> GET bookings/export/owner <== owner id={}", ownerId);
+        return export(ownerId, true);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String userStr, boolean asOwner) {
+        // пользователь проверяется до начала выгрузки, пока можно вернуть статус ошибки
+        Long userId = Long.parseLong(userStr);
+        userService.findById(userId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + userId + " не существует."));
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null); // строки разделяются только переводом строки
+                service.exportBookings(userStr, asOwner, booking -> {
+                    try {
+                        writer.writeValue(generator, booking);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(KeysetPage<BookingDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки списка бронирований: чьи бронирования (автора или владельца вещей),
+ * в каком состоянии на момент now и, если задан itemId, только по одной вещи.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingFilter {
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private final Role role;
+    private final long userId;
+    @Builder.Default
+    private final StateStatus state = StateStatus.ALL;
+    private final Long itemId;
+    private final LocalDateTime now;
+    // читать и архив: в нем только завершенные бронирования, поэтому учитывается для состояний ALL и PAST
+    private final boolean includeArchived;
+
+    public boolean readsArchive() {
+        return includeArchived && (state == StateStatus.ALL || state == StateStatus.PAST);
+    }
+
+}
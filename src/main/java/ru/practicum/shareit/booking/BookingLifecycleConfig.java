@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Фоновая задача жизненного цикла бронирований включается свойством shareit.booking.lifecycle.enabled.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingLifecycleProperties.class)
+@ConditionalOnProperty(name = "shareit.booking.lifecycle.enabled", havingValue = "true")
+public class BookingLifecycleConfig {
+
+    @Bean
+    public BookingLifecycleJob bookingLifecycleJob(BookingRepository bookingRepository,
+                                                   BookingArchiveRepository bookingArchiveRepository,
+                                                   TransactionTemplate transactionTemplate,
+                                                   ApplicationEventPublisher eventPublisher,
+                                                   MeterRegistry meterRegistry,
+                                                   BookingLifecycleProperties properties) {
+        return new BookingLifecycleJob(bookingRepository, bookingArchiveRepository, transactionTemplate,
+                eventPublisher, meterRegistry, properties);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.ItemChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Периодически переводит закончившиеся подтвержденные бронирования в COMPLETED, не подтвержденные
+ * к началу - в CANCELED и, если задан archiveAfter, переносит давно завершенные в архив.
+ * <p>
+ * Строки меняются порциями по chunkSize, каждая порция - отдельная короткая транзакция, а строки,
+ * заблокированные пользовательскими запросами, пропускаются (SKIP LOCKED) и обрабатываются в следующий раз.
+ * Поэтому задача не ждет пользовательские транзакции, а они ждут её не дольше одной порции.
+ * Несколько экземпляров приложения не мешают друг другу по той же причине.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BookingLifecycleJob implements SchedulingConfigurer {
+
+    static final String PROCESSED_COUNTER = "shareit.bookings.lifecycle";
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final BookingLifecycleProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::run, properties.getInterval(), properties.getInterval()));
+    }
+
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        process("complete", limit -> bookingRepository.completeFinished(now, limit));
+        process("expire", limit -> bookingRepository.expireWaiting(now, limit));
+        if (properties.getArchiveAfter() != null) {
+            LocalDateTime before = now.minus(properties.getArchiveAfter());
+            process("archive", limit -> bookingArchiveRepository.moveFinished(before, limit));
+        }
+    }
+
+    // chunk меняет не больше limit бронирований и возвращает их вещи
+    private void process(String operation, IntFunction<List<Long>> chunk) {
+        int processed = 0;
+        try {
+            for (int i = 0; i < properties.getMaxChunks(); i++) {
+                List<Long> itemIds = transactionTemplate.execute(status -> {
+                    List<Long> changed = chunk.apply(properties.getChunkSize());
+                    // карточки вещей и версии их бронирований сбрасываются после фиксации порции
+                    changed.stream()
+                            .distinct()
+                            .forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
+                    return changed;
+                });
+                processed += itemIds.size();
+                if (itemIds.size() < properties.getChunkSize()) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            // зафиксированные порции остаются, остальное - в следующий запуск
+            log.warn("Booking lifecycle {} failed: {}", operation, e.getMostSpecificCause().getMessage());
+        }
+        if (processed > 0) {
+            meterRegistry.counter(PROCESSED_COUNTER, "operation", operation).increment(processed);
+            log.info("Booking lifecycle {}: {} bookings", operation, processed);
+        }
+    }
+}
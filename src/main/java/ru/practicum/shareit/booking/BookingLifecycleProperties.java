@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки фоновой задачи жизненного цикла бронирований.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.booking.lifecycle")
+public class BookingLifecycleProperties {
+
+    private boolean enabled;
+    // пауза между запусками
+    private Duration interval = Duration.ofMinutes(1);
+    // столько строк меняет одна транзакция
+    private int chunkSize = 500;
+    // столько порций каждой операции за запуск, остаток - в следующих запусках
+    private int maxChunks = 20;
+    // через сколько после окончания завершенные и отмененные бронирования уходят в архив (не задано - не уходят)
+    private Duration archiveAfter;
+
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Списки бронирований по фильтру, в порядке убывания ключа (start, id). Запрос составляется
+ * из условий фильтра, поэтому новое состояние или условие добавляется одним предикатом,
+ * а не отдельным методом на каждое сочетание роли и состояния.
+ */
+public interface BookingQueryRepository {
+
+    // порядок списков: по убыванию ключа (start, id)
+    Comparator<BookingViewDto> NEWEST_FIRST = Comparator.comparing(BookingViewDto::getStart)
+            .thenComparing(BookingViewDto::getId)
+            .reversed();
+
+    // страница, следующая за курсором after; при filter.readsArchive() - вместе с архивными бронированиями
+    List<BookingViewDto> findPage(BookingFilter filter, KeysetCursor after, Limit limit);
+
+    // все бронирования по фильтру, читаются с сервера порциями (вызывать внутри транзакции)
+    Stream<BookingViewDto> stream(BookingFilter filter);
+
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * JPQL собирается из предикатов фильтра: равенство по автору или владельцу (ведущий столбец индексов
+ * bookings_author_* и items_owner_idx), необязательное равенство по вещи, условие состояния и граница курсора.
+ * Текст запроса зависит только от таблицы (bookings или архив) и набора предикатов и кешируется по ним,
+ * а значения передаются параметрами, так что Hibernate и PostgreSQL переиспользуют разобранный запрос
+ * для каждой формы фильтра.
+ */
+@RequiredArgsConstructor
+class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    // проекция строки списка: ровно те столбцы, которые попадают в BookingDto
+    private static final String SELECT = "SELECT new ru.practicum.shareit.booking.dto.BookingViewDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.requestId, " +
+            "a.id, a.name, a.email) " +
+            "FROM %s AS b " +
+            "JOIN b.bookingItem AS i " +
+            "JOIN b.bookingAuthor AS a " +
+            "WHERE ";
+    private static final String ORDER = "ORDER BY b.start DESC, b.id DESC";
+
+    private final EntityManager entityManager;
+    private final Map<List<String>, String> queries = new ConcurrentHashMap<>();
+
+    @Override
+    public List<BookingViewDto> findPage(BookingFilter filter, KeysetCursor after, Limit limit) {
+        List<Predicate> predicates = predicates(filter);
+        predicates.add(new Predicate("b.start <= :cursorStart AND (b.start < :cursorStart OR b.id < :cursorId)",
+                Map.of("cursorStart", after.getPosition(), "cursorId", after.getId())));
+        List<BookingViewDto> bookings = page(Booking.class, predicates, limit);
+        if (!filter.readsArchive()) {
+            return bookings;
+        }
+        // архив упорядочен по тому же ключу: страница - начало слияния страниц обеих таблиц
+        return merge(bookings, page(ArchivedBooking.class, predicates, limit), limit);
+    }
+
+    @Override
+    public Stream<BookingViewDto> stream(BookingFilter filter) {
+        return query(Booking.class, predicates(filter))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private List<Predicate> predicates(BookingFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        String user = filter.getRole() == BookingFilter.Role.OWNER ? "i.owner.id = :userId" : "a.id = :userId";
+        predicates.add(new Predicate(user, Map.of("userId", filter.getUserId())));
+        if (filter.getItemId() != null) {
+            predicates.add(new Predicate("i.id = :itemId", Map.of("itemId", filter.getItemId())));
+        }
+        switch (filter.getState()) {
+            case CURRENT -> predicates.add(new Predicate("b.status = :status AND b.start < :now AND b.end > :now",
+                    Map.of("status", BookingStatus.APPROVED, "now", filter.getNow())));
+            case PAST -> predicates.add(new Predicate("b.end < :now", Map.of("now", filter.getNow())));
+            case FUTURE -> predicates.add(new Predicate("b.start > :now", Map.of("now", filter.getNow())));
+            case WAITING -> predicates.add(new Predicate("b.status = :status",
+                    Map.of("status", BookingStatus.WAITING)));
+            case REJECTED -> predicates.add(new Predicate("b.status = :status",
+                    Map.of("status", BookingStatus.REJECTED)));
+            case ALL -> {
+            }
+        }
+        return predicates;
+    }
+
+    private List<BookingViewDto> page(Class<?> entity, List<Predicate> predicates, Limit limit) {
+        TypedQuery<BookingViewDto> query = query(entity, predicates);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    // первый элемент ключа - сущность, остальные - предикаты
+    private TypedQuery<BookingViewDto> query(Class<?> entity, List<Predicate> predicates) {
+        List<String> key = new ArrayList<>(predicates.size() + 1);
+        key.add(entity.getSimpleName());
+        predicates.forEach(predicate -> key.add(predicate.jpql()));
+        String jpql = queries.computeIfAbsent(key, BookingQueryRepositoryImpl::toJpql);
+        TypedQuery<BookingViewDto> query = entityManager.createQuery(jpql, BookingViewDto.class);
+        predicates.forEach(predicate -> predicate.parameters().forEach(query::setParameter));
+        return query;
+    }
+
+    private static String toJpql(List<String> key) {
+        return SELECT.formatted(key.getFirst()) + String.join(" AND ", key.subList(1, key.size())) + " " + ORDER;
+    }
+
+    // Бронирование, перенесенное в архив между двумя запросами, может попасть в обе страницы -
+    // одинаковые ключи при слиянии оказываются рядом, и второй пропускается
+    private static List<BookingViewDto> merge(List<BookingViewDto> live, List<BookingViewDto> archived, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : live.size() + archived.size();
+        List<BookingViewDto> result = new ArrayList<>(Math.min(max, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (result.size() < max && (i < live.size() || j < archived.size())) {
+            BookingViewDto next;
+            if (j == archived.size() || i < live.size() && NEWEST_FIRST.compare(live.get(i), archived.get(j)) <= 0) {
+                next = live.get(i++);
+            } else {
+                next = archived.get(j++);
+            }
+            if (result.isEmpty() || !result.getLast().getId().equals(next.getId())) {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+
+    private record Predicate(String jpql, Map<String, Object> parameters) {
+    }
+}
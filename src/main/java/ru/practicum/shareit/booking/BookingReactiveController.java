@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+
+/**
+ * Списки бронирований для клиентов, запросивших Accept: application/x-ndjson: те же параметры, что у
+ * BookingController, но бронирования читаются неблокирующим драйвером и пишутся в ответ по одному на строку.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+@RequestMapping(path = "/bookings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+public class BookingReactiveController {
+
+    private final BookingReactiveService service;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByUser(
+            @RequestHeader("X-Sharer-User-Id") String bookerStr,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("==> GET bookings?state={}&itemId={}&size={} <== ndjson", state, itemId, size);
+        return toResponse(service.bookerFilter(bookerStr, state, itemId, includeArchived), cursor, size);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<Flux<BookingDto>>> getBookingsByOwner(
+            @RequestHeader("X-Sharer-User-Id") String ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("==> GET bookings/owner?state={}&itemId={}&size={} <== ndjson", state, itemId, size);
+        return toResponse(service.ownerFilter(ownerId, state, itemId, includeArchived), cursor, size);
+    }
+
+    // Без size бронирования передаются клиенту по мере чтения из БД. Страница ограничена size
+    // и собирается целиком: курсор следующей страницы уходит в заголовке, до тела ответа
+    private Mono<ResponseEntity<Flux<BookingDto>>> toResponse(Mono<BookingFilter> filter, String cursor,
+                                                              Integer size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit limit = KeysetPage.limit(size);
+        return filter.flatMap(bookingFilter -> {
+            Flux<BookingDto> bookings = service.find(bookingFilter, after, limit);
+            if (size == null) {
+                return Mono.just(ResponseEntity.ok().body(bookings));
+            }
+            return bookings.collectList()
+                    .map(content -> KeysetPage.of(content, size,
+                            booking -> KeysetCursor.of(booking.getStart(), booking.getId())))
+                    .map(page -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (page.getNextCursor() != null) {
+                            response.header(KeysetPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+                        }
+                        return response.body(Flux.fromIterable(page.getContent()));
+                    });
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тот же список бронирований, что и BookingQueryRepositoryImpl, но через неблокирующий драйвер:
+ * SQL собирается из тех же предикатов фильтра и использует те же индексы.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+class BookingReactiveRepository {
+
+    private static final String SELECT = "SELECT b.id, b.start_booking, b.finish_booking, b.booking_status, " +
+            "i.id AS item_id, i.item_name, i.item_description, i.available, i.request_id, " +
+            "a.id AS booker_id, a.user_name, a.email " +
+            "FROM %s AS b " +
+            "JOIN items AS i ON i.id = b.item_id " +
+            "JOIN users AS a ON a.id = b.author_id " +
+            "WHERE ";
+    private static final String ORDER = " ORDER BY b.start_booking DESC, b.id DESC";
+
+    private final DatabaseClient databaseClient;
+
+    Flux<BookingViewDto> findPage(BookingFilter filter, KeysetCursor after, Limit limit) {
+        List<Predicate> predicates = predicates(filter);
+        predicates.add(new Predicate("b.start_booking <= :cursorStart " +
+                "AND (b.start_booking < :cursorStart OR b.id < :cursorId)",
+                Map.of("cursorStart", after.getPosition(), "cursorId", after.getId())));
+        Flux<BookingViewDto> bookings = page("bookings", predicates, limit);
+        if (!filter.readsArchive()) {
+            return bookings;
+        }
+        // как в BookingQueryRepositoryImpl: слияние страниц обеих таблиц без повторов
+        Flux<BookingViewDto> merged = Flux.mergeComparing(BookingQueryRepository.NEWEST_FIRST,
+                        bookings, page("bookings_archive", predicates, limit))
+                .distinctUntilChanged(BookingViewDto::getId);
+        return limit.isLimited() ? merged.take(limit.max()) : merged;
+    }
+
+    private Flux<BookingViewDto> page(String table, List<Predicate> predicates, Limit limit) {
+        String sql = SELECT.formatted(table) + String.join(" AND ", predicates.stream().map(Predicate::sql).toList())
+                + ORDER;
+        if (limit.isLimited()) {
+            sql += " LIMIT " + limit.max();
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (Predicate predicate : predicates) {
+            for (Map.Entry<String, Object> parameter : predicate.parameters().entrySet()) {
+                spec = spec.bind(parameter.getKey(), parameter.getValue());
+            }
+        }
+        return spec.map(BookingReactiveRepository::toView).all();
+    }
+
+    private static List<Predicate> predicates(BookingFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        String user = filter.getRole() == BookingFilter.Role.OWNER ? "i.owner_id = :userId" : "b.author_id = :userId";
+        predicates.add(new Predicate(user, Map.of("userId", filter.getUserId())));
+        if (filter.getItemId() != null) {
+            predicates.add(new Predicate("b.item_id = :itemId", Map.of("itemId", filter.getItemId())));
+        }
+        switch (filter.getState()) {
+            case CURRENT -> predicates.add(new Predicate("b.booking_status = :status " +
+                    "AND b.start_booking < :now AND b.finish_booking > :now",
+                    Map.of("status", BookingStatus.APPROVED.name(), "now", filter.getNow())));
+            case PAST -> predicates.add(new Predicate("b.finish_booking < :now", Map.of("now", filter.getNow())));
+            case FUTURE -> predicates.add(new Predicate("b.start_booking > :now", Map.of("now", filter.getNow())));
+            case WAITING -> predicates.add(new Predicate("b.booking_status = :status",
+                    Map.of("status", BookingStatus.WAITING.name())));
+            case REJECTED -> predicates.add(new Predicate("b.booking_status = :status",
+                    Map.of("status", BookingStatus.REJECTED.name())));
+            case ALL -> {
+            }
+        }
+        return predicates;
+    }
+
+    private static BookingViewDto toView(Readable row) {
+        return new BookingViewDto(
+                row.get("id", Long.class),
+                row.get("start_booking", LocalDateTime.class),
+                row.get("finish_booking", LocalDateTime.class),
+                BookingStatus.valueOf(row.get("booking_status", String.class)),
+                row.get("item_id", Long.class),
+                row.get("item_name", String.class),
+                row.get("item_description", String.class),
+                row.get("available", Boolean.class),
+                row.get("request_id", Long.class),
+                row.get("booker_id", Long.class),
+                row.get("user_name", String.class),
+                row.get("email", String.class));
+    }
+
+    private record Predicate(String sql, Map<String, Object> parameters) {
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapperImpl;
+import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+import ru.practicum.shareit.user.UserReactiveRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неблокирующее чтение списков бронирований. Фильтр возвращается только после проверки пользователя,
+ * чтобы ошибка пришла клиенту обычным статусом до начала потоковой передачи ответа.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+public class BookingReactiveService {
+
+    private final BookingReactiveRepository bookingReactiveRepository;
+    private final UserReactiveRepository userReactiveRepository;
+    private final BookingMapperImpl bookingMapper;
+
+    public Mono<BookingFilter> bookerFilter(String bookerStr, String state, Long itemId, boolean includeArchived) {
+        return filter(BookingFilter.Role.BOOKER, bookerStr, state, itemId, includeArchived, "Пользователя");
+    }
+
+    public Mono<BookingFilter> ownerFilter(String ownerStr, String state, Long itemId, boolean includeArchived) {
+        return filter(BookingFilter.Role.OWNER, ownerStr, state, itemId, includeArchived, "Владельца");
+    }
+
+    public Flux<BookingDto> find(BookingFilter filter, KeysetCursor after, Limit limit) {
+        return bookingReactiveRepository.findPage(filter, after, limit)
+                .map(bookingMapper::toDto);
+    }
+
+    // некорректное состояние отклоняется сразу, ещё до обращения к БД
+    private Mono<BookingFilter> filter(BookingFilter.Role role, String userStr, String state, Long itemId,
+                                       boolean includeArchived, String who) {
+        long userId = Long.parseLong(userStr);
+        BookingFilter filter = BookingFilter.builder()
+                .role(role)
+                .userId(userId)
+                .state(StateStatus.from(state))
+                .itemId(itemId)
+                .now(LocalDateTime.now())
+                .includeArchived(includeArchived)
+                .build();
+        return userReactiveRepository.existsById(userId)
+                .flatMap(exists -> exists ? Mono.just(filter)
+                        : Mono.error(new MyNotFoundException(who + " с id=" + userId + " не существует.")));
+    }
+}
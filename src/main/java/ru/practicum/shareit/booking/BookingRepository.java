@@ -1,106 +1,108 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingAccessDto;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
 
-import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    // поиск всех бронирований по автору бронирования
-    List<Booking> findAllByBookingAuthorIdOrderByStartDesc(Long bookerId);
-
-    // поиск всех бронирований по владельцу вещей
-    List<Booking> findAllByBookingItemOwnerIdOrderByStartDesc(Long ownerId);
-
-    List<Booking> findAllByBookingItemOwnerIdOrderByStart(Long ownerId);
-
-    List<Booking> findAllByBookingAuthorIdAndBookingItemId(Long ownerId, Long itemId);
-
-    List<Booking> findAllByBookingItemId(Long itemId);
-
-
-    // поиск текущих бронирований автора бронирования
-    @Query("SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.status LIKE 'APPROVED' " +
-            "AND (b.start < :dateTime AND b.end > :dateTime) " +
-            "AND a.id = :bookerId " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllCurrentByBooker(Timestamp dateTime, Long bookerId);
-
-    // поиск текущих бронирований владельца вещей
-    @Query("SELECT b " +
+import java.util.Optional;
+
+/**
+ * Списки и выгрузки бронирований по ролям и состояниям выбираются через BookingQueryRepository.
+ */
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository,
+        BookingQueryRepository {
+
+    String OVERLAP_CONSTRAINT = "bookings_no_overlap";
+
+    // есть ли у вещи действующее бронирование, пересекающееся с [start, end).
+    // Условие совпадает с ограничением bookings_no_overlap, поэтому запрос идет по его gist-индексу
+    @Query(value = "SELECT EXISTS (SELECT 1 " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = :itemId " +
+            "AND b.booking_status IN ('WAITING', 'APPROVED') " +
+            "AND tsrange(b.start_booking, b.finish_booking) && tsrange(:start, :end)) ", nativeQuery = true)
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    @Override
+    @EntityGraph(attributePaths = {"bookingItem", "bookingAuthor"})
+    Optional<Booking> findById(Long id);
+
+    // вещь, автор и владелец вещи бронирования и версии строк бронирования, вещи и автора - без загрузки сущностей
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingAccessDto(b.bookingItem.id, b.bookingAuthor.id, " +
+            "b.bookingItem.owner.id, b.version, b.bookingItem.version, b.bookingAuthor.version) " +
             "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.status LIKE 'APPROVED' " +
-            "AND (b.start < :dateTime AND b.end > :dateTime) " +
-            "AND (i.owner.id = :ownerId) " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllCurrentByOwner(Timestamp dateTime, Long ownerId);
+            "WHERE b.id = :bookingId ")
+    Optional<BookingAccessDto> findAccessById(Long bookingId);
 
-    // поиск по статусу бронирования и автору бронирования (для WAITING и REJECTED)
-    @Query("SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.status LIKE :status " +
-            "AND a.id = :bookerId " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllByBookerWithStatus(String status, Long bookerId);
-
-    // поиск по статусу бронирования и владельцу вещей (для WAITING и REJECTED)
-    @Query("SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.status LIKE :status " +
-            "AND (i.owner.id = :ownerId) " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllByOwnerWithStatus(String status, Long ownerId);
+    @EntityGraph(attributePaths = {"bookingItem", "bookingAuthor"})
+    List<Booking> findAllByBookingAuthorIdAndBookingItemId(Long ownerId, Long itemId);
 
-    // поиск будующих бронирований автора бронирования
+    // действующие бронирования вещей, пересекающиеся с периодом [from, to) -
+    // для проверки пакета новых бронирований в памяти
     @Query("SELECT b " +
             "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.start > :start " +
-            "AND a.id = :bookerId " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllFutureByBooker(Timestamp start, Long bookerId);
-
-    // поиск будующих бронирований владельца вещи
-    @Query("SELECT b " +
+            "WHERE b.bookingItem.id IN :itemIds " +
+            "AND b.status IN (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "AND b.start < :to AND b.end > :from ")
+    List<Booking> findAllActiveByItemIdsBetween(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to);
+
+    // периоды действующих бронирований вещей, ещё не завершившихся к моменту after, по возрастанию начала -
+    // для расчета свободных интервалов
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingIntervalDto(b.bookingItem.id, b.start, b.end) " +
             "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.start > :start " +
-            "AND (i.owner.id = :ownerId) " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllFutureByOwner(Timestamp start, Long ownerId);
-
-    // поиск прошлых бронирований по автору бронирования
-    @Query("SELECT b " +
+            "WHERE b.bookingItem.id IN :itemIds " +
+            "AND b.status IN (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "AND b.end > :after " +
+            "ORDER BY b.start ")
+    List<BookingIntervalDto> findActiveIntervals(Collection<Long> itemIds, LocalDateTime after);
+
+    // Порция подтвержденных бронирований, закончившихся до now, переводится в COMPLETED. Строки, заблокированные
+    // пользовательскими транзакциями, пропускаются до следующего запуска. Возвращаются вещи измененных бронирований
+    @Query(value = "WITH batch AS (SELECT id FROM bookings " +
+            "WHERE booking_status = 'APPROVED' AND finish_booking < :now " +
+            "ORDER BY finish_booking LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "UPDATE bookings AS b SET booking_status = 'COMPLETED', version = b.version + 1 " +
+            "FROM batch WHERE b.id = batch.id " +
+            "RETURNING b.item_id ", nativeQuery = true)
+    List<Long> completeFinished(LocalDateTime now, int limit);
+
+    // то же для бронирований, не подтвержденных владельцем до начала: они переводятся в CANCELED
+    @Query(value = "WITH batch AS (SELECT id FROM bookings " +
+            "WHERE booking_status = 'WAITING' AND start_booking < :now " +
+            "ORDER BY start_booking LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "UPDATE bookings AS b SET booking_status = 'CANCELED', version = b.version + 1 " +
+            "FROM batch WHERE b.id = batch.id " +
+            "RETURNING b.item_id ", nativeQuery = true)
+    List<Long> expireWaiting(LocalDateTime now, int limit);
+
+    // даты последнего (окончание раньше lastBefore) и ближайшего (начало позже now) бронирования,
+    // а также ближайшее окончание, после которого сменится последнее бронирование,
+    // для каждой вещи владельца - одной группировкой вместо перебора всех бронирований в памяти
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemBookingDatesDto(b.bookingItem.id, " +
+            "MAX(CASE WHEN b.end < :lastBefore THEN b.end END), " +
+            "MIN(CASE WHEN b.start > :now THEN b.start END), " +
+            "MIN(CASE WHEN b.end >= :lastBefore THEN b.end END)) " +
             "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.end < :end " +
-            "AND a.id = :bookerId " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllPastByBooker(Timestamp end, Long bookerId);
-
-    // поиск прошлых бронирований владельца вещей
-    @Query("SELECT b " +
+            "WHERE b.bookingItem.owner.id = :ownerId " +
+            "GROUP BY b.bookingItem.id ")
+    List<ItemBookingDatesDto> findBookingDatesByOwner(Long ownerId, LocalDateTime lastBefore, LocalDateTime now);
+
+    // то же для одной вещи
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemBookingDatesDto(b.bookingItem.id, " +
+            "MAX(CASE WHEN b.end < :lastBefore THEN b.end END), " +
+            "MIN(CASE WHEN b.start > :now THEN b.start END), " +
+            "MIN(CASE WHEN b.end >= :lastBefore THEN b.end END)) " +
             "FROM Booking AS b " +
-            "JOIN b.bookingItem AS i " +
-            "JOIN b.bookingAuthor AS a " +
-            "WHERE b.end < :end " +
-            "AND (i.owner.id = :ownerId) " +
-            "ORDER BY b.start DESC ")
-    List<Booking> findAllPastByOwner(Timestamp end, Long ownerId);
+            "WHERE b.bookingItem.id = :itemId " +
+            "GROUP BY b.bookingItem.id ")
+    Optional<ItemBookingDatesDto> findBookingDatesByItem(Long itemId, LocalDateTime lastBefore, LocalDateTime now);
 
 }
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreatingDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.version.ResourceVersion;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created Shchetinin Alexander 01.08.2024
@@ -14,12 +18,21 @@ public interface BookingService {
 
     BookingDto create(String ownerId, BookingCreatingDto bookingCreatingDto);
 
+    List<BookingBatchResultDto> createBatch(String bookerId, List<BookingCreatingDto> bookings);
+
     BookingDto changeStatus(String ownerId, BookingStatusDto bookingStatusDto);
 
     BookingDto getById(String ownerId, long bookingId);
 
-    List<BookingDto> getBookingsByBooker(String bookerStr, String state);
+    // версия бронирования для условного GET, без загрузки самого бронирования
+    ResourceVersion getVersion(String userId, long bookingId);
+
+    KeysetPage<BookingDto> getBookingsByBooker(String bookerStr, String state, Long itemId, boolean includeArchived,
+                                               String cursor, Integer size);
+
+    KeysetPage<BookingDto> getBookingsByOwner(String ownerId, String state, Long itemId, boolean includeArchived,
+                                              String cursor, Integer size);
 
-    List<BookingDto> getBookingsByOwner(String ownerId, String state);
+    void exportBookings(String userStr, boolean asOwner, Consumer<BookingDto> consumer);
 
 }
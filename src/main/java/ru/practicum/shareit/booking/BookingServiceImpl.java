@@ -1,38 +1,87 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingAccessDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreatingDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
 import ru.practicum.shareit.booking.mapper.BookingMapperImpl;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.InterruptionRuleException;
 import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.item.ItemChangedEvent;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.retry.RetryOnConflict;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.version.ResourceVersion;
+import ru.practicum.shareit.version.ResourceVersions;
 
-import java.sql.Timestamp;
-import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    // время выборки страницы бронирований с разбивкой по роли пользователя и параметру state
+    static final String LIST_TIMER = "shareit.bookings.list";
+    // наибольшее число бронирований в одном пакетном запросе
+    static final int BATCH_MAX_SIZE = 500;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final ItemRepository itemRepository;
     private final BookingMapperImpl bookingMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final ResourceVersions resourceVersions;
 
+    // Пересечение с другими бронированиями вещи проверяет ограничение bookings_no_overlap,
+    // поэтому создание не требует сериализуемой изоляции: конкурируют только вставки по одной вещи
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public BookingDto create(String bookerStr, BookingCreatingDto bookingCreatingDto) {
         Long bookerId = Long.parseLong(bookerStr);
         if (bookingCreatingDto.getStart().isAfter(bookingCreatingDto.getEnd()) ||
@@ -47,21 +96,158 @@ public class BookingServiceImpl implements BookingService {
         if (!returnedItem.isAvailable()) {
             throw new BadRequestException("Вещь на данный момент недоступна для бронирования");
         }
+        if (bookingRepository.existsOverlapping(returnedItem.getId(),
+                bookingCreatingDto.getStart(), bookingCreatingDto.getEnd())) {
+            throw new BookingOverlapException("Вещь с id=" + returnedItem.getId() + " уже забронирована на этот период");
+        }
         Booking booking = bookingMapper.toModel(bookingCreatingDto);
 
         booking.setBookingAuthor(returnedUser);
         booking.setBookingItem(returnedItem);
         booking.setStatus(BookingStatus.WAITING);
 
-        bookingRepository.save(booking);
+        try {
+            bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            // пересекающееся бронирование успело создать параллельная транзакция
+            if (e.getMostSpecificCause().getMessage().contains(BookingRepository.OVERLAP_CONSTRAINT)) {
+                throw new BookingOverlapException("Вещь с id=" + returnedItem.getId() +
+                        " уже забронирована на этот период");
+            }
+            throw e;
+        }
+        // даты бронирований в карточке вещи изменились
+        eventPublisher.publishEvent(new ItemChangedEvent(returnedItem.getId()));
         return bookingMapper.toDto(booking);
     }
 
+    // Пакетное создание: вещи загружаются одним IN-запросом, пересечения проверяются в памяти
+    // по действующим бронированиям этих вещей и по уже принятым записям пакета,
+    // принятые бронирования вставляются одним JDBC-батчем
+    @Override
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BookingBatchResultDto> createBatch(String bookerStr, List<BookingCreatingDto> bookings) {
+        if (bookings.size() > BATCH_MAX_SIZE) {
+            throw new BadRequestException("В одном пакете можно создать не более " + BATCH_MAX_SIZE + " бронирований");
+        }
+        Long bookerId = Long.parseLong(bookerStr);
+        UserDto booker = userService.findById(bookerId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + bookerId + " не существует."));
+        User author = userMapper.toModel(booker);
+
+        Set<Long> itemIds = bookings.stream()
+                .filter(Objects::nonNull)
+                .map(BookingCreatingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> activeByItem = findActiveBookings(items.keySet(), bookings);
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookings.size()];
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingCreatingDto bookingCreatingDto = bookings.get(i);
+            String error = validateBatchEntry(bookingCreatingDto, items, activeByItem);
+            if (error != null) {
+                results[i] = BookingBatchResultDto.builder().index(i).error(error).build();
+                continue;
+            }
+            Booking booking = bookingMapper.toModel(bookingCreatingDto);
+            booking.setBookingAuthor(author);
+            booking.setBookingItem(items.get(bookingCreatingDto.getItemId()));
+            booking.setStatus(BookingStatus.WAITING);
+            // следующие записи пакета проверяются и против этого бронирования
+            activeByItem.computeIfAbsent(bookingCreatingDto.getItemId(), id -> new ArrayList<>()).add(booking);
+            accepted.add(booking);
+            acceptedIndexes.add(i);
+        }
+
+        try {
+            bookingRepository.insertAll(accepted);
+        } catch (DataIntegrityViolationException e) {
+            // пересекающееся бронирование успело создать параллельная транзакция -
+            // при повторе пакет будет проверен заново с его учётом
+            if (e.getMostSpecificCause().getMessage().contains(BookingRepository.OVERLAP_CONSTRAINT)) {
+                throw new ConcurrencyFailureException("Пакет бронирований пересекся с параллельно созданным", e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .booking(bookingMapper.toDto(accepted.get(i)))
+                    .build();
+        }
+        accepted.stream()
+                .map(booking -> booking.getBookingItem().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+                .forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
+        log.debug("Batch of {} bookings for user id={}: {} created", bookings.size(), bookerId, accepted.size());
+        return Arrays.asList(results);
+    }
+
+    // действующие бронирования вещей пакета за весь охватываемый им период - одним запросом
+    private Map<Long, List<Booking>> findActiveBookings(Set<Long> itemIds, List<BookingCreatingDto> bookings) {
+        List<BookingCreatingDto> dated = bookings.stream()
+                .filter(Objects::nonNull)
+                .filter(booking -> booking.getStart() != null && booking.getEnd() != null)
+                .toList();
+        Map<Long, List<Booking>> activeByItem = new HashMap<>();
+        if (itemIds.isEmpty() || dated.isEmpty()) {
+            return activeByItem;
+        }
+        LocalDateTime from = dated.stream().map(BookingCreatingDto::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = dated.stream().map(BookingCreatingDto::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        for (Booking booking : bookingRepository.findAllActiveByItemIdsBetween(itemIds, from, to)) {
+            activeByItem.computeIfAbsent(booking.getBookingItem().getId(), id -> new ArrayList<>()).add(booking);
+        }
+        return activeByItem;
+    }
+
+    // те же проверки, что при создании одного бронирования; null - запись корректна
+    private String validateBatchEntry(BookingCreatingDto booking, Map<Long, Item> items,
+                                      Map<Long, List<Booking>> activeByItem) {
+        if (booking == null) {
+            return "Пустая запись бронирования";
+        }
+        Set<ConstraintViolation<BookingCreatingDto>> violations = validator.validate(booking);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" "));
+        }
+        if (!booking.getStart().isBefore(booking.getEnd())) {
+            return "Дата окончания бронирования должна быть позже даты начала";
+        }
+        Item item = items.get(booking.getItemId());
+        if (item == null) {
+            return "Вещи с id=" + booking.getItemId() + " не существует.";
+        }
+        if (!item.isAvailable()) {
+            return "Вещь на данный момент недоступна для бронирования";
+        }
+        boolean overlaps = activeByItem.getOrDefault(item.getId(), List.of()).stream()
+                .anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()));
+        if (overlaps) {
+            return "Вещь с id=" + item.getId() + " уже забронирована на этот период";
+        }
+        return null;
+    }
+
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public BookingDto changeStatus(String ownerStr, BookingStatusDto bookingStatusDto) {
         Long ownerId = Long.parseLong(ownerStr);
-        userRepository.findById(ownerId)
+        userService.findById(ownerId)
                 .orElseThrow(() -> new BadRequestException("Владельца с id=" + ownerId + " не существует."));
         Booking returnedBooking = bookingRepository.findById(bookingStatusDto.getId())
                 .orElseThrow(() ->
@@ -70,21 +256,26 @@ public class BookingServiceImpl implements BookingService {
         if (!returnedBooking.getBookingItem().getOwner().getId().equals(ownerId)) {
             throw new InterruptionRuleException("Изменять статус может только владелец вещи");
         }
+        // решение принимается один раз: подтвержденное, отклоненное, а также завершенное или отмененное
+        // фоновой задачей бронирование не возвращается в действующие и не переписывает историю
+        if (returnedBooking.getStatus() != BookingStatus.WAITING) {
+            throw new BadRequestException("Статус бронирования с id=" + returnedBooking.getId() + " уже " +
+                    returnedBooking.getStatus() + ", изменить можно только ожидающее подтверждения бронирование");
+        }
         if (bookingStatusDto.approve) {
             returnedBooking.setStatus(BookingStatus.APPROVED);
         } else {
             returnedBooking.setStatus(BookingStatus.REJECTED);
         }
         bookingRepository.save(returnedBooking);
-        Item item = returnedBooking.getBookingItem();
-        System.out.println(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(returnedBooking.getBookingItem().getId()));
         return bookingMapper.toDto(returnedBooking);
     }
 
     @Override
     public BookingDto getById(String userStr, long bookingId) {
         Long userId = Long.parseLong(userStr);
-        userRepository.findById(userId)
+        userService.findById(userId)
                 .orElseThrow(() -> new MyNotFoundException("Владельца с id=" + userId + " не существует."));
         Booking returnedBooking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new MyNotFoundException("Бронирования с id=" + bookingId + " не существует."));
@@ -97,91 +288,102 @@ public class BookingServiceImpl implements BookingService {
                 "или автор бронирования.");
     }
 
+    // В ответ входят бронирование, его вещь и автор - ETag собирается из версий этих строк.
+    // Проверки доступа те же, что в getById, но по проекции
     @Override
-    public List<BookingDto> getBookingsByBooker(String bookerStr, String state) {
+    public ResourceVersion getVersion(String userStr, long bookingId) {
+        Long userId = Long.parseLong(userStr);
+        userService.findById(userId)
+                .orElseThrow(() -> new MyNotFoundException("Владельца с id=" + userId + " не существует."));
+        BookingAccessDto access = bookingRepository.findAccessById(bookingId)
+                .orElseThrow(() -> new MyNotFoundException("Бронирования с id=" + bookingId + " не существует."));
+
+        if (Objects.equals(access.getOwnerId(), userId) || Objects.equals(access.getBookerId(), userId)) {
+            return resourceVersions.get(ResourceVersions.BOOKINGS, bookingId, access.getBookingVersion() + "." +
+                    access.getItemVersion() + "." + access.getBookerVersion());
+        }
+        throw new InterruptionRuleException("Получить информацию о бронировании могут только владелец вещи " +
+                "или автор бронирования.");
+    }
+
+    @Override
+    public KeysetPage<BookingDto> getBookingsByBooker(String bookerStr, String state, Long itemId,
+                                                      boolean includeArchived, String cursor, Integer size) {
         Long bookerId = Long.parseLong(bookerStr);
-        userRepository.findById(bookerId)
+        userService.findById(bookerId)
                 .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + bookerId + " не существует."));
-        return switch (convertToState(state)) {
-            case CURRENT -> bookingRepository.findAllCurrentByBooker(Timestamp.from(Instant.now()),
-                            bookerId).stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-            case WAITING -> bookingRepository.findAllByBookerWithStatus(StateStatus.WAITING.toString(), bookerId)
-                    .stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-            case PAST -> bookingRepository.findAllPastByBooker(Timestamp.from(Instant.now()), bookerId).stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-            case FUTURE -> bookingRepository.findAllFutureByBooker(Timestamp.from(Instant.now()), bookerId).stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-            case REJECTED -> bookingRepository
-                    .findAllByBookerWithStatus(StateStatus.REJECTED.toString(), bookerId).stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-            // default = ALL
-            default -> bookingRepository.findAllByBookingAuthorIdOrderByStartDesc(bookerId).stream()
-                    .map(bookingMapper::toDto)
-                    .toList();
-        };
+        return findPage(BookingFilter.Role.BOOKER, bookerId, state, itemId, includeArchived, cursor, size);
     }
 
     @Override
-    public List<BookingDto> getBookingsByOwner(String ownerStr, String state) {
+    public KeysetPage<BookingDto> getBookingsByOwner(String ownerStr, String state, Long itemId,
+                                                     boolean includeArchived, String cursor, Integer size) {
         Long ownerId = Long.parseLong(ownerStr);
-        userRepository.findById(ownerId)
+        userService.findById(ownerId)
                 .orElseThrow(() -> new MyNotFoundException("Владельца с id=" + ownerId + " не существует."));
-        if (!itemRepository.findAllByOwnerId(ownerId).isEmpty()) {
-            return switch (convertToState(state)) {
-                case CURRENT -> bookingRepository.findAllCurrentByOwner(Timestamp.from(Instant.now()), ownerId).stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-                case WAITING -> bookingRepository.findAllByOwnerWithStatus(StateStatus.WAITING.toString(), ownerId)
-                        .stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-                case PAST -> bookingRepository.findAllPastByOwner(Timestamp.from(Instant.now()), ownerId).stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-                case FUTURE -> bookingRepository.findAllFutureByOwner(Timestamp.from(Instant.now()), ownerId).stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-                case REJECTED -> bookingRepository
-                        .findAllByOwnerWithStatus(StateStatus.REJECTED.toString(), ownerId).stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-                // default = ALL
-                default -> bookingRepository.findAllByBookingItemOwnerIdOrderByStartDesc(ownerId).stream()
-                        .map(bookingMapper::toDto)
-                        .toList();
-            };
+        if (!itemRepository.existsByOwnerId(ownerId)) {
+            return new KeysetPage<>(List.of(), null);
         }
-        return List.of();
+        return findPage(BookingFilter.Role.OWNER, ownerId, state, itemId, includeArchived, cursor, size);
     }
 
-
-    private StateStatus convertToState(String state) {
-        if (state.equalsIgnoreCase("CURRENT")) {
-            return StateStatus.CURRENT;
+    private KeysetPage<BookingDto> findPage(BookingFilter.Role role, long userId, String state, Long itemId,
+                                            boolean includeArchived, String cursor, Integer size) {
+        BookingFilter filter = BookingFilter.builder()
+                .role(role)
+                .userId(userId)
+                .state(StateStatus.from(state))
+                .itemId(itemId)
+                .now(LocalDateTime.now())
+                .includeArchived(includeArchived)
+                .build();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit limit = KeysetPage.limit(size);
+        // время неудачных выборок тоже учитывается - с outcome=ERROR
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
+        List<BookingViewDto> bookings;
+        try {
+            bookings = bookingRepository.findPage(filter, after, limit);
+            outcome = "SUCCESS";
+        } finally {
+            sample.stop(listTimer(role, filter.getState(), outcome));
         }
-        if (state.equalsIgnoreCase("PAST")) {
-            return StateStatus.PAST;
-        }
-        if (state.equalsIgnoreCase("FUTURE")) {
-            return StateStatus.FUTURE;
-        }
-        if (state.equalsIgnoreCase("WAITING")) {
-            return StateStatus.WAITING;
-        }
-        if (state.equalsIgnoreCase("REJECTED")) {
-            return StateStatus.REJECTED;
-        }
-        if (state.equalsIgnoreCase("ALL")) {
-            return StateStatus.ALL;
-        } else {
-            throw new InterruptionRuleException("Параметр state в URL запросе некоректный");
+        return toPage(bookings, size);
+    }
+
+    // Выгрузка всей истории бронирований без накопления в памяти: каждое бронирование сразу
+    // передается потребителю. Строки выбираются проекцией, поэтому контекст персистентности не растет
+    @Override
+    public void exportBookings(String userStr, boolean asOwner, Consumer<BookingDto> consumer) {
+        Long userId = Long.parseLong(userStr);
+        BookingFilter filter = BookingFilter.builder()
+                .role(asOwner ? BookingFilter.Role.OWNER : BookingFilter.Role.BOOKER)
+                .userId(userId)
+                .build();
+        try (Stream<BookingViewDto> bookings = bookingRepository.stream(filter)) {
+            int exported = 0;
+            for (Iterator<BookingViewDto> iterator = bookings.iterator(); iterator.hasNext(); exported++) {
+                consumer.accept(bookingMapper.toDto(iterator.next()));
+            }
+            log.debug("Exported {} bookings for user id={}, asOwner={}", exported, userId, asOwner);
         }
     }
+
+    private Timer listTimer(BookingFilter.Role role, StateStatus state, String outcome) {
+        return Timer.builder(LIST_TIMER)
+                .description("Выборка страницы бронирований по состоянию")
+                .tag("role", role.name().toLowerCase(Locale.ROOT))
+                .tag("state", state.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // курсор следующей страницы строится по последнему бронированию текущей
+    private KeysetPage<BookingDto> toPage(List<BookingViewDto> bookings, Integer size) {
+        return KeysetPage.of(bookings.stream()
+                        .map(bookingMapper::toDto)
+                        .toList(),
+                size, booking -> KeysetCursor.of(booking.getStart(), booking.getId()));
+    }
 }
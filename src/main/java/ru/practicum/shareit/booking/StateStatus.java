@@ -1,10 +1,30 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.exception.InterruptionRuleException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public enum StateStatus {
     ALL,
     CURRENT,  // бронирования которые подтверждены владельцем вещи
     WAITING, // бронирования ожидающие подтверждения
     REJECTED, // бронирования отклоненные владельцем вещи
     PAST, // завершенные бронирования (неактуально)
-    FUTURE  // будущие бронирования
+    FUTURE;  // будущие бронирования
+
+    private static final Map<String, StateStatus> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, Function.identity()));
+
+    // значение параметра state из URL, без учета регистра
+    public static StateStatus from(String state) {
+        StateStatus stateStatus = BY_NAME.get(state.toUpperCase(Locale.ROOT));
+        if (stateStatus == null) {
+            throw new InterruptionRuleException("Параметр state в URL запросе некоректный");
+        }
+        return stateStatus;
+    }
 }
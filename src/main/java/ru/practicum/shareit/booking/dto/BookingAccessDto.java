@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Идентификаторы, от которых зависит доступ к бронированию, и версии строк, из которых собирается
+ * его представление, - для проверки условного запроса без загрузки бронирования.
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingAccessDto {
+
+    private Long itemId;
+    private Long bookerId;
+    private Long ownerId;
+    private Long bookingVersion;
+    private Long itemVersion;
+    private Long bookerVersion;
+
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Результат создания одной записи пакета бронирований: index - позиция записи в запросе,
+ * booking - созданное бронирование либо error - причина отказа
+ */
+@Getter
+@Builder
+@ToString
+public class BookingBatchResultDto {
+
+    private int index;
+    private BookingDto booking;
+    private String error;
+
+}
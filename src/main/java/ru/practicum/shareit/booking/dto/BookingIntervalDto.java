@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период действующего бронирования вещи [start, end) - для расчета свободных интервалов.
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingIntervalDto {
+
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+}
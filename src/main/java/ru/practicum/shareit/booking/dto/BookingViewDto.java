@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: только поля, нужные для BookingDto, выбранные конструктором в JPQL-запросе.
+ * Сущности Booking, Item и User при этом не создаются и не попадают в контекст персистентности
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingViewDto {
+
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private Boolean itemAvailable;
+    private Long itemRequestId;
+    private Long bookerId;
+    private String bookerName;
+    private String bookerEmail;
+
+}
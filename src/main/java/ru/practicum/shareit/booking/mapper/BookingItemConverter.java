@@ -10,6 +10,7 @@ public interface BookingItemConverter {
 
     @Named("toItem")
     @Mapping(target = "id", source = "id")
+    @Mapping(target = "version", ignore = true)
     Item toItem(Long id);
 
 }
\ No newline at end of file
@@ -5,11 +5,13 @@ import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.dto.BookingCreatingDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingViewDto;
 
 @Mapper(componentModel = "spring", uses = {BookingItemConverter.class, BookingUserConverter.class})
 public interface BookingMapper {
 
     @Mapping(target = "bookingItem", source = "itemId", qualifiedByName = "toItem")
+    @Mapping(target = "version", ignore = true)
     Booking toModel(BookingCreatingDto bookingCreatingDto);
 
     @Mapping(target = "itemId", source = "bookingItem.id")
@@ -18,6 +20,16 @@ public interface BookingMapper {
     @Mapping(target = "item", source = "bookingItem")
     @Mapping(target = "booker", source = "bookingAuthor")
     BookingDto toDto(Booking booking);
+
+    @Mapping(target = "item.id", source = "itemId")
+    @Mapping(target = "item.name", source = "itemName")
+    @Mapping(target = "item.description", source = "itemDescription")
+    @Mapping(target = "item.available", source = "itemAvailable")
+    @Mapping(target = "item.requestId", source = "itemRequestId")
+    @Mapping(target = "booker.id", source = "bookerId")
+    @Mapping(target = "booker.name", source = "bookerName")
+    @Mapping(target = "booker.email", source = "bookerEmail")
+    BookingDto toDto(BookingViewDto booking);
 }
 
 
@@ -10,6 +10,7 @@ public interface BookingUserConverter {
 
     @Named("toUser")
     @Mapping(target = "id", source = "id")
+    @Mapping(target = "version", ignore = true)
     User toUser(Long id);
 
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.concurrency;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * На виртуальных потоках Tomcat не ограничивает число одновременно обрабатываемых запросов,
+ * и тысячи запросов упирались бы в пул соединений Hikari, получая ошибку по таймауту ожидания соединения.
+ * Фильтр пропускает к сервисам не больше запросов, чем соединений в пуле, остальные ждут
+ * своей очереди на дешёвом виртуальном потоке.
+ * Асинхронный запрос (потоковая выгрузка, NDJSON) держит разрешение до завершения ответа,
+ * а не до выхода из обработчика.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    public DatabaseConcurrencyFilter(
+            @Value("${shareit.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        log.info("Virtual threads enabled, database concurrency limited to {} requests", maxConcurrency);
+    }
+
+    // служебные эндпоинты должны отвечать и под полной нагрузкой
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Ожидание обработки запроса прервано", e);
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new PermitRelease());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    // onError и onTimeout приходят перед onComplete - разрешение возвращается один раз
+    private class PermitRelease implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // повторный startAsync сбрасывает слушателей - регистрируемся заново
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повторная инвалидация кешей при чтении с реплик. Запись сбрасывает запись кеша после фиксации, но следующий
+ * промах в другом потоке может загрузить значение с реплики, еще не получившей изменение, и сохранить его
+ * на весь TTL кеша. Поэтому сброс повторяется, когда изменение гарантированно дошло до используемых реплик:
+ * через max-lag плюс период проверки (отставшая реплика исключается из чтения не позже следующей проверки).
+ * Без чтения с реплик повторный сброс не нужен и не выполняется.
+ */
+@Slf4j
+@Component
+public class ReplicaLagInvalidation {
+
+    // null - чтение с реплик выключено
+    private final Duration delay;
+
+    // настройки есть, только когда чтение с реплик включено
+    public ReplicaLagInvalidation(Optional<ReplicaRoutingProperties> routing) {
+        delay = routing.map(properties -> properties.getMaxLag().plus(properties.getCheckInterval())).orElse(null);
+    }
+
+    // Повторяет сброс через задержку от вызова - вызывается после фиксации изменившей данные транзакции
+    public void repeatAfterLag(Runnable invalidation) {
+        if (delay == null) {
+            return;
+        }
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                invalidation.run();
+            } catch (RuntimeException e) {
+                log.warn("Delayed cache invalidation failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Периодически проверяет отставание реплик и исключает из чтения недоступные и отстающие больше maxLag.
+ * Отставание - время с последней примененной транзакции. Оно считается нулевым, если реплика применила весь
+ * полученный WAL и продолжает получать его с основной БД (без новых записей время последней транзакции
+ * растет, хотя реплика актуальна), или не находится в режиме восстановления (отдельный экземпляр PostgreSQL
+ * без репликации - так удобно проверять локально). Реплика, не получающая WAL, может отставать сколько угодно
+ * и исключается из чтения при любом измеренном отставании.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor implements HealthIndicator, SchedulingConfigurer {
+
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN streaming AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END AS lag, " +
+            "NOT pg_is_in_recovery() OR streaming AS receiving " +
+            "FROM (SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') AS streaming) AS r";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaRoutingProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::check, properties.getCheckInterval(), Duration.ZERO));
+    }
+
+    public void check() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            boolean wasAvailable = replica.isAvailable();
+            String previousError = replica.getError();
+            try {
+                Map<String, Object> state = new JdbcTemplate(replica.getDataSource()).queryForMap(LAG_QUERY);
+                Number lag = (Number) state.get("lag");
+                boolean receiving = Boolean.TRUE.equals(state.get("receiving"));
+                replica.setLagMillis(lag == null ? null : lag.longValue());
+                if (!receiving) {
+                    replica.setError("Реплика не получает WAL с основной БД");
+                } else {
+                    replica.setError(lag == null ? "Отставание реплики неизвестно" : null);
+                }
+                replica.setAvailable(receiving && lag != null && lag.doubleValue() <= properties.getMaxLag().toMillis());
+            } catch (DataAccessException e) {
+                replica.setLagMillis(null);
+                replica.setError(e.getMostSpecificCause().getMessage());
+                replica.setAvailable(false);
+            }
+            if (wasAvailable != replica.isAvailable()
+                    || replica.getError() != null && !replica.getError().equals(previousError)) {
+                log.warn("Replica {} is {}: lag={} ms, error={}", replica.getName(),
+                        replica.isAvailable() ? "available" : "excluded from reads",
+                        replica.getLagMillis(), replica.getError());
+            }
+        }
+    }
+
+    // чтение продолжает работать и без реплик, поэтому их состояние выводится в деталях, не меняя статус
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("available", replica.isAvailable());
+            state.put("lagMillis", replica.getLagMillis());
+            state.put("error", replica.getError());
+            details.put(replica.getName(), state);
+        }
+        details.put("maxLagMillis", properties.getMaxLag().toMillis());
+        return Health.up().withDetails(details).build();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разделение чтения и записи: транзакции с readOnly = true выполняются на репликах, остальные - на основной БД.
+ * Транзакция помечает соединение только для чтения до первого запроса, поэтому ленивый прокси успевает
+ * выбрать источник по этому признаку и получает физическое соединение уже из нужного пула.
+ * После записи поток еще max-lag читает с основной БД, чтобы видеть собственные изменения. Кеши, которые
+ * заполняются из readOnly-транзакций других потоков, после записи сбрасываются повторно (ReplicaLagInvalidation).
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(name = "shareit.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // тот же пул, что создала бы автоконфигурация, с настройками из spring.datasource.hikari
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaRoutingProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName(name);
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+                config.setPassword(replica.getPassword());
+            }
+            if (replica.getMaximumPoolSize() != null) {
+                config.setMaximumPoolSize(replica.getMaximumPoolSize());
+            }
+            config.setReadOnly(true);
+            config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            // недоступная при запуске реплика не мешает старту: чтение уйдет на основную БД
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, new HikariDataSource(config)));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(replicaRoutingDataSource.writeTracking(primaryDataSource));
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaRoutingProperties properties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, properties);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений для readOnly-транзакций: соединения по очереди выдаются доступными репликами,
+ * а если ни одна реплика не доступна или отстает больше допустимого - основной БД.
+ * Реплика, не выдавшая соединение, сразу исключается из чтения до следующей успешной проверки,
+ * а запрос получает соединение основной БД.
+ * <p>
+ * Поток, недавно бравший соединение для записи, читает с основной БД: реплика могла еще не получить
+ * только что зафиксированные изменения, и чтение сразу после записи вернуло бы старые данные.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    @Getter
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    // момент последнего соединения для записи в этом потоке (System.nanoTime)
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    // столько после записи поток читает с основной БД - не меньше допустимого отставания реплик
+    private final long readYourWritesNanos;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWritesNanos = readYourWrites.toNanos();
+    }
+
+    // источник соединений для записи: отмечает поток, чтобы его чтение не ушло на отстающую реплику
+    public DataSource writeTracking(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                lastWrite.set(System.nanoTime());
+                return super.getConnection();
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long wrote = lastWrite.get();
+        if (wrote != null && System.nanoTime() - wrote < readYourWritesNanos) {
+            return primary.getConnection();
+        }
+        Replica replica = nextAvailable();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException e) {
+            replica.setAvailable(false);
+            replica.setError(e.getMessage());
+            log.warn("Replica {} is excluded from reads: {}", replica.getName(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Соединения с репликами выдаются только под учетной записью пула");
+    }
+
+    // пул основной БД - отдельный бин и закрывается контейнером
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+
+    private Replica nextAvailable() {
+        List<Replica> available = replicas.stream()
+                .filter(Replica::isAvailable)
+                .toList();
+        if (available.isEmpty()) {
+            return null;
+        }
+        return available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+    }
+
+    // состояние реплики обновляет ReplicaLagMonitor; до первой успешной проверки реплика недоступна
+    @Getter
+    @Setter
+    @RequiredArgsConstructor
+    public static class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean available;
+        private volatile Long lagMillis;
+        private volatile String error;
+
+    }
+}
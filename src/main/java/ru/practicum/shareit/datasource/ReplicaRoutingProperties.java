@@ -0,0 +1,37 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки чтения с реплик: адреса реплик, допустимое отставание и период его проверки.
+ * Не заданные у реплики имя пользователя, пароль и размер пула берутся из spring.datasource
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled;
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration checkInterval = Duration.ofSeconds(5);
+    // сколько чтение ждет соединения реплики, прежде чем уйти на основную БД
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private Integer maximumPoolSize;
+
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class BookingOverlapException extends RuntimeException {
+
+    public BookingOverlapException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.handler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -37,6 +39,20 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler
+    public ErrorResponse overlapped(BookingOverlapException e) {
+        log.debug("Booking overlap: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler
+    public ErrorResponse concurrentUpdate(ConcurrencyFailureException e) {
+        log.debug("Concurrent update: {}", e.getMessage());
+        return new ErrorResponse("Данные изменены параллельным запросом, повторите попытку");
+    }
+
     @ResponseStatus(HttpStatus.FORBIDDEN)
     @ExceptionHandler
     public ErrorResponse interrupted(InterruptionRuleException e) {
@@ -65,6 +81,14 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    // например, Accept: application/x-ndjson при выключенном неблокирующем чтении
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_ACCEPTABLE)
+    public ErrorResponse notAcceptable(final HttpMediaTypeNotAcceptableException e) {
+        log.debug("Not acceptable: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleException(final Exception e) {
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ошибка эндпоинта, отдающего application/x-ndjson (выгрузки и неблокирующие списки), возвращается
+ * одной JSON-строкой в том же формате: иначе ответ об ошибке не проходит согласование типа и клиент
+ * получает пустой ответ со статусом 500. Остальные объекты этим конвертером не пишутся.
+ * <p>
+ * Наследник MappingJackson2HttpMessageConverter заменил бы собой основной JSON-конвертер Spring Boot.
+ */
+@Component
+public class ErrorResponseNdjsonConverter extends AbstractJackson2HttpMessageConverter {
+
+    public ErrorResponseNdjsonConverter(ObjectMapper objectMapper) {
+        super(objectMapper, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return ErrorResponse.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+}
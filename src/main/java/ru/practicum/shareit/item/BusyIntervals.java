@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Занятые периоды вещи: действующие бронирования, слитые в непересекающиеся интервалы по возрастанию начала.
+ * Окончания при этом тоже возрастают, поэтому первый интервал, задевающий окно, находится двоичным поиском,
+ * и расчет свободных интервалов окна обходит только попавшие в него бронирования.
+ */
+final class BusyIntervals {
+
+    static final BusyIntervals EMPTY = new BusyIntervals(new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private BusyIntervals(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    // bookings должны быть упорядочены по началу; пересекающиеся и смежные периоды сливаются
+    static BusyIntervals merge(List<BookingIntervalDto> bookings) {
+        List<LocalDateTime> starts = new ArrayList<>(bookings.size());
+        List<LocalDateTime> ends = new ArrayList<>(bookings.size());
+        for (BookingIntervalDto booking : bookings) {
+            int last = ends.size() - 1;
+            if (last >= 0 && !booking.getStart().isAfter(ends.get(last))) {
+                if (booking.getEnd().isAfter(ends.get(last))) {
+                    ends.set(last, booking.getEnd());
+                }
+            } else {
+                starts.add(booking.getStart());
+                ends.add(booking.getEnd());
+            }
+        }
+        return new BusyIntervals(starts.toArray(LocalDateTime[]::new), ends.toArray(LocalDateTime[]::new));
+    }
+
+    // свободные интервалы внутри окна [from, to)
+    List<AvailabilityIntervalDto> free(LocalDateTime from, LocalDateTime to) {
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (int i = firstEndingAfter(from); i < starts.length && starts[i].isBefore(to); i++) {
+            if (starts[i].isAfter(cursor)) {
+                free.add(new AvailabilityIntervalDto(cursor, starts[i]));
+            }
+            if (ends[i].isAfter(cursor)) {
+                cursor = ends[i];
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new AvailabilityIntervalDto(cursor, to));
+        }
+        return free;
+    }
+
+    private int firstEndingAfter(LocalDateTime moment) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle].isAfter(moment)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
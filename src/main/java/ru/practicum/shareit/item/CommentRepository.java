@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -7,8 +8,11 @@ import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    // вещь и автор нужны для CommentDto, поэтому загружаются вместе с комментариями
+    @EntityGraph(attributePaths = {"item", "author"})
     List<Comment> findAllByItemOwnerId(Long ownerId);
 
+    @EntityGraph(attributePaths = {"item", "author"})
     List<Comment> findAllByItemId(Long itemId);
 
 
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.datasource.ReplicaLagInvalidation;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Кеш занятых периодов вещей для расчета свободных интервалов. Запись удаляется после фиксации
+ * транзакции, изменившей вещь или её бронирования, и в любом случае через TTL - так из неё
+ * уходят завершившиеся бронирования.
+ */
+@Slf4j
+@Component
+public class ItemAvailabilityCache {
+
+    public static final String CACHE_NAME = "itemAvailability";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final long MAX_SIZE = 10_000;
+
+    private final ReplicaLagInvalidation replicaLagInvalidation;
+    private final AsyncCache<Long, BusyIntervals> cache;
+
+    public ItemAvailabilityCache(MeterRegistry meterRegistry, ReplicaLagInvalidation replicaLagInvalidation) {
+        this.replicaLagInvalidation = replicaLagInvalidation;
+        cache = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(TTL)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Как и в ItemDetailsCache, загрузка идет в потоке запроса: отсутствующие в кеше вещи
+    // загружаются одним запросом, уже загружаемые другими потоками - ожидаются.
+    // Инвалидация во время загрузки удаляет незавершенную запись, и устаревший результат не сохраняется.
+    Map<Long, BusyIntervals> getAll(Collection<Long> itemIds, Function<Set<Long>, Map<Long, BusyIntervals>> loader) {
+        Map<Long, CompletableFuture<BusyIntervals>> futures = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<BusyIntervals>> loading = new HashMap<>();
+        for (Long itemId : itemIds) {
+            CompletableFuture<BusyIntervals> own = new CompletableFuture<>();
+            CompletableFuture<BusyIntervals> cached = cache.get(itemId, (id, executor) -> own);
+            if (cached == own) {
+                loading.put(itemId, own);
+            }
+            futures.put(itemId, cached);
+        }
+        if (!loading.isEmpty()) {
+            try {
+                Map<Long, BusyIntervals> loaded = loader.apply(loading.keySet());
+                loading.forEach((itemId, future) -> future.complete(loaded.getOrDefault(itemId, BusyIntervals.EMPTY)));
+            } catch (RuntimeException e) {
+                // пустое значение удаляет запись из кеша без предупреждения в логе Caffeine
+                loading.values().forEach(future -> future.complete(null));
+                throw e;
+            }
+        }
+        Map<Long, BusyIntervals> result = new LinkedHashMap<>();
+        Set<Long> failed = new LinkedHashSet<>();
+        futures.forEach((itemId, future) -> {
+            BusyIntervals intervals = future.join();
+            if (intervals == null) {
+                failed.add(itemId);
+            } else {
+                result.put(itemId, intervals);
+            }
+        });
+        // загрузка в другом потоке завершилась ошибкой, повторяем её в своём
+        if (!failed.isEmpty()) {
+            Map<Long, BusyIntervals> loaded = loader.apply(failed);
+            failed.forEach(itemId -> result.put(itemId, loaded.getOrDefault(itemId, BusyIntervals.EMPTY)));
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        log.debug("Invalidate cached availability of item id={}", event.getItemId());
+        cache.synchronous().invalidate(event.getItemId());
+        // загруженная с отстающей реплики запись не переживет повторный сброс
+        replicaLagInvalidation.repeatAfterLag(() -> cache.synchronous().invalidate(event.getItemId()));
+    }
+}
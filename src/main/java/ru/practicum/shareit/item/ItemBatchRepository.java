@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Пакетная вставка вещей одним JDBC-батчем для массовой загрузки.
+ * Hibernate не группирует вставки в таблицы с IDENTITY-ключом.
+ */
+public interface ItemBatchRepository {
+
+    void insertAll(List<Item> items);
+
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ItemBatchRepositoryImpl implements ItemBatchRepository {
+
+    private static final String INSERT = "INSERT INTO items " +
+            "(item_name, item_description, owner_id, available, request_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Item> items) {
+        jdbcTemplate.batchUpdate(INSERT, items, items.size(), (ps, item) -> {
+            ps.setString(1, item.getName());
+            ps.setString(2, item.getDescription());
+            ps.setLong(3, item.getOwner().getId());
+            ps.setBoolean(4, item.isAvailable());
+            ps.setObject(5, item.getRequestId(), Types.BIGINT);
+        });
+    }
+}
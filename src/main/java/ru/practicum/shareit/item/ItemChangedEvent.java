@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Событие об изменении данных, из которых собирается карточка вещи: самой вещи,
+ * её комментариев или бронирований. Публикуется внутри пишущей транзакции.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ItemChangedEvent {
+
+    private final long itemId;
+
+}
@@ -3,16 +3,25 @@ package ru.practicum.shareit.item;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemBookTimeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.validator.Marker;
+import ru.practicum.shareit.version.ResourceVersion;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -26,6 +35,7 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @GetMapping
     public ResponseEntity<Collection<ItemBookTimeDto>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") String ownerId) {
@@ -33,21 +43,52 @@ public class ItemController {
         return ResponseEntity.ok().body(itemService.getAllByOwner(ownerId));
     }
 
+    // При совпадении If-None-Match / If-Modified-Since - 304: выполняется только запрос версии вещи,
+    // карточка не собирается. Карточка запрашивается после версии, поэтому изменение между ними
+    // даст клиенту устаревший ETag при свежей карточке, но не наоборот
     @GetMapping("/{id}")
     public ResponseEntity<ItemBookTimeDto> getById(@RequestHeader("X-Sharer-User-Id") String ownerId,
-                                                   @PathVariable long id) {
+                                                   @PathVariable long id,
+                                                   WebRequest request) {
         log.info("==> GET /user by id={} <==", id);
+        ResourceVersion version = itemService.getVersion(ownerId, id);
+        if (version.checkNotModified(request)) {
+            return null;
+        }
         return ResponseEntity.ok().body(itemService.getById(ownerId, id));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Collection<ItemDto>> getSelection(@RequestParam(defaultValue = "") String text) {
-        log.info("==> GET /search Item with text='{}' <==", text);
-        List<ItemDto> returnedItems = itemService.getSelection(text);
+    public ResponseEntity<Collection<ItemDto>> getSelection(@RequestParam(defaultValue = "") String text,
+                                                            @RequestParam(defaultValue = "0") int from,
+                                                            @RequestParam(required = false) Integer size) {
+        log.info("==> GET /search Item with text='{}', from={}, size={} <==", text, from, size);
+        List<ItemDto> returnedItems = itemService.getSelection(text, from, size);
         log.info("Get list items by search={}; size={}", text, returnedItems.size());
         return ResponseEntity.ok().body(returnedItems);
     }
 
+    // Свободные интервалы вещи в периоде [from, to) с учетом подтвержденных и ожидающих подтверждения бронирований
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") String userId,
+            @PathVariable long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("==> GET /items/{}/availability?from={}&to={} <==", itemId, from, to);
+        return ResponseEntity.ok().body(itemService.getAvailability(userId, itemId, from, to));
+    }
+
+    // Свободные интервалы всех вещей владельца в периоде [from, to) одним запросом
+    @GetMapping("/availability")
+    public ResponseEntity<List<ItemAvailabilityDto>> getAvailabilityByOwner(
+            @RequestHeader("X-Sharer-User-Id") String ownerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("==> GET /items/availability?from={}&to={} for owner with id={} <==", from, to, ownerId);
+        return ResponseEntity.ok().body(itemService.getAvailabilityByOwner(ownerId, from, to));
+    }
+
     @PostMapping
     public ResponseEntity<ItemDto> add(@RequestHeader("X-Sharer-User-Id") String ownerId,
                                        @RequestBody @Validated(Marker.Create.class) ItemDto itemDto) {
@@ -55,6 +96,17 @@ public class ItemController {
         return ResponseEntity.ok().body(itemService.add(ownerId, itemDto));
     }
 
+    // Массовая загрузка вещей владельца из CSV или NDJSON, тело запроса читается потоком
+    @PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ItemImportResultDto> importItems(@RequestHeader("X-Sharer-User-Id") String ownerId,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) {
+        log.info("==> POST /items/import: ownerId={}, contentType={}", ownerId, contentType);
+        ItemImportResultDto result = itemImportService.importItems(ownerId, body, ItemImportFormat.of(contentType));
+        log.info("==> POST /items/import <== {}", result);
+        return ResponseEntity.ok().body(result);
+    }
+
     @PostMapping("{itemId}/comment")
     public ResponseEntity<CommentDto> addComment(@RequestHeader("X-Sharer-User-Id") String author,
                                                  @PathVariable(required = false) Long itemId,
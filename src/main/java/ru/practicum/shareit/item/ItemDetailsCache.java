@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.datasource.ReplicaLagInvalidation;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кеш собранных карточек вещей (ItemBookTimeDto). Запись удаляется после фиксации транзакции,
+ * изменившей вещь, её комментарии или бронирования, а также истекает в момент, когда
+ * даты последнего/ближайшего бронирования должны смениться.
+ */
+@Slf4j
+@Component
+public class ItemDetailsCache {
+
+    public static final String CACHE_NAME = "itemDetails";
+    // верхняя граница жизни записи на случай изменений в обход сервисов
+    private static final Duration MAX_TTL = Duration.ofMinutes(10);
+    private static final long MAX_SIZE = 10_000;
+
+    private final ReplicaLagInvalidation replicaLagInvalidation;
+    private final AsyncCache<Long, Entry> cache;
+
+    public ItemDetailsCache(MeterRegistry meterRegistry, ReplicaLagInvalidation replicaLagInvalidation) {
+        this.replicaLagInvalidation = replicaLagInvalidation;
+        cache = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfter(new RolloverExpiry())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Карточка загружается в потоке запроса, а не внутри compute() кеша: там удерживается монитор
+    // ConcurrentHashMap, и запрос к БД закрепил бы виртуальный поток за потоком-носителем.
+    // Параллельные запросы той же вещи ждут уже начатую загрузку.
+    public Entry get(long itemId, Supplier<Entry> loader) {
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> cached = cache.get(itemId, (id, executor) -> loading);
+        if (cached != loading) {
+            Entry entry = cached.join();
+            // null - загрузка в другом потоке завершилась ошибкой, повторяем её в своём
+            return entry != null ? entry : loader.get();
+        }
+        try {
+            Entry entry = loader.get();
+            loading.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            // пустое значение удаляет запись из кеша без предупреждения в логе Caffeine
+            loading.complete(null);
+            throw e;
+        }
+    }
+
+    // То же для неблокирующего чтения: загрузка - цепочка запросов R2DBC, ни один поток её не ждет
+    public CompletableFuture<ItemBookTimeDto> getAsync(long itemId, Supplier<CompletableFuture<Entry>> loader) {
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> cached = cache.get(itemId, (id, executor) -> loading);
+        if (cached != loading) {
+            return cached.thenCompose(entry -> entry != null ? CompletableFuture.completedFuture(entry) : loader.get())
+                    .thenApply(Entry::getItem);
+        }
+        return loader.get()
+                .whenComplete((entry, error) -> loading.complete(error == null ? entry : null))
+                .thenApply(Entry::getItem);
+    }
+
+    // удаляет загруженную карточку, собранную не для этой версии вещи
+    public void invalidateOutdated(long itemId, String etag) {
+        CompletableFuture<Entry> cached = cache.getIfPresent(itemId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return;
+        }
+        Entry entry = cached.getNow(null);
+        if (entry != null && !etag.equals(entry.getEtag())) {
+            log.debug("Invalidate outdated details of item id={}", itemId);
+            cache.asMap().remove(itemId, cached);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        log.debug("Invalidate cached details of item id={}", event.getItemId());
+        cache.synchronous().invalidate(event.getItemId());
+        // загруженная с отстающей реплики запись не переживет повторный сброс
+        replicaLagInvalidation.repeatAfterLag(() -> cache.synchronous().invalidate(event.getItemId()));
+    }
+
+    // запись живёт до смены дат бронирований, обновление и чтение срок не продлевают
+    private static class RolloverExpiry implements Expiry<Long, Entry> {
+
+        @Override
+        public long expireAfterCreate(Long itemId, Entry entry, long currentTime) {
+            return entry.timeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, Entry entry, long currentTime, long currentDuration) {
+            return entry.timeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Карточка вещи, момент, до которого она актуальна (null - не зависит от времени),
+     * и ETag вещи, прочитанный перед сборкой карточки (null - неизвестен).
+     * DTO изменяемые, поэтому каждый вызывающий получает свою копию карточки, а закешированная не меняется.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+
+        private final ItemBookTimeDto item;
+        private final LocalDateTime validUntil;
+        private final String etag;
+
+        public ItemBookTimeDto getItem() {
+            return copy(item);
+        }
+
+        private static ItemBookTimeDto copy(ItemBookTimeDto item) {
+            List<CommentDto> comments = item.getComments() == null ? null : item.getComments().stream()
+                    .map(comment -> comment.toBuilder()
+                            .item(comment.getItem() == null ? null : comment.getItem().toBuilder().build())
+                            .build())
+                    .collect(Collectors.toList());
+            return item.toBuilder().comments(comments).build();
+        }
+
+        private Duration timeToLive() {
+            if (validUntil == null) {
+                return MAX_TTL;
+            }
+            Duration untilRollover = Duration.between(LocalDateTime.now(), validUntil);
+            if (untilRollover.isNegative()) {
+                return Duration.ZERO;
+            }
+            return untilRollover.compareTo(MAX_TTL) < 0 ? untilRollover : MAX_TTL;
+        }
+    }
+}
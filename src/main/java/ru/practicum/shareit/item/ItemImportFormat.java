@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exception.BadRequestException;
+
+/**
+ * Форматы файла массовой загрузки вещей
+ */
+public enum ItemImportFormat {
+
+    CSV(new MediaType("text", "csv")), // первая строка - заголовок с колонками name,description,available[,requestId]
+    NDJSON(MediaType.APPLICATION_NDJSON); // по одному JSON-объекту ItemDto в строке
+
+    private final MediaType mediaType;
+
+    ItemImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static ItemImportFormat of(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (ItemImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Неподдерживаемый формат загрузки вещей: " + contentType);
+    }
+}
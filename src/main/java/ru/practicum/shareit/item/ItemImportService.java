@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import java.io.InputStream;
+
+public interface ItemImportService {
+
+    ItemImportResultDto importItems(String ownerId, InputStream input, ItemImportFormat format);
+
+}
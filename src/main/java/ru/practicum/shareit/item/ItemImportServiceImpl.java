@@ -0,0 +1,227 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.mapper.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.validator.Marker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Массовая загрузка вещей владельца. Файл читается построчно и не накапливается в памяти:
+ * корректные строки собираются в порции по CHUNK_SIZE, каждая порция вставляется JDBC-батчем
+ * в собственной транзакции. Ошибка в строке не прерывает загрузку - строка попадает в отчёт.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportServiceImpl implements ItemImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    // в ответе перечисляются только первые ошибки, остальные учитываются в счётчике
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemMapperImpl itemMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public ItemImportResultDto importItems(String ownerStr, InputStream input, ItemImportFormat format) {
+        long ownerId = Long.parseLong(ownerStr);
+        userService.findById(ownerId)
+                .orElseThrow(
+                        () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
+        // для вставки нужен только идентификатор владельца
+        User owner = User.builder().id(ownerId).build();
+
+        long started = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(CHUNK_SIZE);
+        // существование запроса проверяется один раз на каждый встреченный id
+        Map<Long, Boolean> knownRequests = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvColumns = format == ItemImportFormat.CSV ? readCsvHeader(reader) : null;
+            int lineNumber = format == ItemImportFormat.CSV ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ItemDto itemDto = format == ItemImportFormat.CSV
+                            ? parseCsvLine(line, csvColumns)
+                            : objectMapper.readValue(line, ItemDto.class);
+                    validate(itemDto);
+                    Long requestId = itemDto.getRequestId();
+                    if (requestId != null && !knownRequests.computeIfAbsent(requestId,
+                            itemRequestRepository::existsById)) {
+                        throw new BadRequestException("запроса с id=" + requestId + " не существует");
+                    }
+                    Item item = itemMapper.toModel(itemDto);
+                    item.setOwner(owner);
+                    chunk.add(item);
+                } catch (BadRequestException | JsonProcessingException e) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Строка " + lineNumber + ": " + errorMessage(e));
+                    }
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += saveChunk(chunk);
+                    log.info("Item import for owner id={}: {} items saved, {} rejected", ownerId, imported, rejected);
+                }
+            }
+            imported += saveChunk(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Item import for owner id={} finished in {} ms: {} items saved, {} rejected",
+                ownerId, durationMs, imported, rejected);
+        return ItemImportResultDto.builder()
+                .imported(imported)
+                .rejected(rejected)
+                .durationMs(durationMs)
+                .errors(errors)
+                .build();
+    }
+
+    private int saveChunk(List<Item> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> itemRepository.insertAll(chunk));
+        int saved = chunk.size();
+        chunk.clear();
+        return saved;
+    }
+
+    // те же правила, что при добавлении одной вещи через POST /items
+    private void validate(ItemDto itemDto) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Marker.Create.class);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " - " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static String errorMessage(Exception e) {
+        return e instanceof JsonProcessingException json ? "некорректный JSON: " + json.getOriginalMessage()
+                : e.getMessage();
+    }
+
+    private static Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return Map.of();
+        }
+        List<String> names = splitCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "description", "available")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("В заголовке CSV нет колонки " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static ItemDto parseCsvLine(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() < columns.size()) {
+            throw new BadRequestException("ожидалось колонок: " + columns.size() + ", получено: " + values.size());
+        }
+        String available = values.get(columns.get("available")).trim();
+        if (!available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+            throw new BadRequestException("available - должно быть true или false");
+        }
+        return ItemDto.builder()
+                .name(values.get(columns.get("name")))
+                .description(values.get(columns.get("description")))
+                .available(Boolean.parseBoolean(available))
+                .requestId(parseRequestId(values, columns.get("requestid")))
+                .build();
+    }
+
+    // необязательная колонка requestId: пустое значение - вещь не относится к запросу
+    private static Long parseRequestId(List<String> values, Integer column) {
+        if (column == null || values.get(column).isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(values.get(column).trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("requestId - должно быть числом");
+        }
+    }
+
+    // значения через запятую, в кавычках допускаются запятые и удвоенные кавычки ("")
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new BadRequestException("незакрытые кавычки");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+
+/**
+ * Вещи владельца и карточка вещи для клиентов, запросивших Accept: application/x-ndjson.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+@RequestMapping(path = "/items", produces = MediaType.APPLICATION_NDJSON_VALUE)
+public class ItemReactiveController {
+
+    private final ItemReactiveService itemReactiveService;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<ItemBookTimeDto>>> getAllByOwner(
+            @RequestHeader("X-Sharer-User-Id") String ownerId) {
+        log.info("==> GET /all items for owner with id={}<== ndjson", ownerId);
+        return itemReactiveService.checkOwner(ownerId)
+                .map(owner -> ResponseEntity.ok().body(itemReactiveService.getAllByOwner(owner)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Flux<ItemBookTimeDto>>> getById(@RequestHeader("X-Sharer-User-Id") String ownerId,
+                                                               @PathVariable long id) {
+        log.info("==> GET /item by id={} <== ndjson", id);
+        return itemReactiveService.checkOwner(ownerId)
+                .then(itemReactiveService.getById(id))
+                .map(item -> ResponseEntity.ok().body(Flux.just(item)));
+    }
+}
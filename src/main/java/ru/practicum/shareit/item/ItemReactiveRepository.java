@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+
+import java.time.LocalDateTime;
+
+/**
+ * Карточки вещей через неблокирующий драйвер: те же запросы, что у ItemRepository, BookingRepository
+ * и CommentRepository для GET /items и GET /items/{id}, но сразу в DTO.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+class ItemReactiveRepository {
+
+    private static final String SELECT_ITEMS = "SELECT i.id, i.item_name, i.item_description, i.available " +
+            "FROM items AS i ";
+    private static final String SELECT_DATES = "SELECT b.item_id, " +
+            "MAX(CASE WHEN b.finish_booking < :lastBefore THEN b.finish_booking END) AS last_booking, " +
+            "MIN(CASE WHEN b.start_booking > :now THEN b.start_booking END) AS next_booking, " +
+            "MIN(CASE WHEN b.finish_booking >= :lastBefore THEN b.finish_booking END) AS nearest_end " +
+            "FROM bookings AS b ";
+    private static final String SELECT_COMMENTS = "SELECT c.id, c.text, c.created, a.user_name, " +
+            "i.id AS item_id, i.item_name, i.item_description, i.available, i.request_id " +
+            "FROM comments AS c " +
+            "JOIN items AS i ON i.id = c.item_id " +
+            "JOIN users AS a ON a.id = c.author_id ";
+
+    private final DatabaseClient databaseClient;
+
+    Flux<ItemBookTimeDto> findAllByOwnerId(long ownerId) {
+        return databaseClient.sql(SELECT_ITEMS + "WHERE i.owner_id = :ownerId ORDER BY i.id")
+                .bind("ownerId", ownerId)
+                .map(ItemReactiveRepository::toItem)
+                .all();
+    }
+
+    Mono<ItemBookTimeDto> findById(long itemId) {
+        return databaseClient.sql(SELECT_ITEMS + "WHERE i.id = :itemId")
+                .bind("itemId", itemId)
+                .map(ItemReactiveRepository::toItem)
+                .one();
+    }
+
+    Flux<ItemBookingDatesDto> findBookingDatesByOwner(long ownerId, LocalDateTime lastBefore, LocalDateTime now) {
+        return databaseClient.sql(SELECT_DATES + "JOIN items AS i ON i.id = b.item_id " +
+                        "WHERE i.owner_id = :ownerId GROUP BY b.item_id")
+                .bind("ownerId", ownerId)
+                .bind("lastBefore", lastBefore)
+                .bind("now", now)
+                .map(ItemReactiveRepository::toDates)
+                .all();
+    }
+
+    Mono<ItemBookingDatesDto> findBookingDatesByItem(long itemId, LocalDateTime lastBefore, LocalDateTime now) {
+        return databaseClient.sql(SELECT_DATES + "WHERE b.item_id = :itemId GROUP BY b.item_id")
+                .bind("itemId", itemId)
+                .bind("lastBefore", lastBefore)
+                .bind("now", now)
+                .map(ItemReactiveRepository::toDates)
+                .one();
+    }
+
+    Flux<CommentDto> findCommentsByOwnerId(long ownerId) {
+        return databaseClient.sql(SELECT_COMMENTS + "WHERE i.owner_id = :ownerId")
+                .bind("ownerId", ownerId)
+                .map(ItemReactiveRepository::toComment)
+                .all();
+    }
+
+    Flux<CommentDto> findCommentsByItemId(long itemId) {
+        return databaseClient.sql(SELECT_COMMENTS + "WHERE c.item_id = :itemId")
+                .bind("itemId", itemId)
+                .map(ItemReactiveRepository::toComment)
+                .all();
+    }
+
+    private static ItemBookTimeDto toItem(Readable row) {
+        return ItemBookTimeDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("item_name", String.class))
+                .description(row.get("item_description", String.class))
+                .available(row.get("available", Boolean.class))
+                .build();
+    }
+
+    private static ItemBookingDatesDto toDates(Readable row) {
+        return new ItemBookingDatesDto(
+                row.get("item_id", Long.class),
+                row.get("last_booking", LocalDateTime.class),
+                row.get("next_booking", LocalDateTime.class),
+                row.get("nearest_end", LocalDateTime.class));
+    }
+
+    private static CommentDto toComment(Readable row) {
+        return CommentDto.builder()
+                .id(row.get("id", Long.class))
+                .text(row.get("text", String.class))
+                .created(row.get("created", LocalDateTime.class))
+                .authorName(row.get("user_name", String.class))
+                .item(ItemDto.builder()
+                        .id(row.get("item_id", Long.class))
+                        .name(row.get("item_name", String.class))
+                        .description(row.get("item_description", String.class))
+                        .available(row.get("available", Boolean.class))
+                        .requestId(row.get("request_id", Long.class))
+                        .build())
+                .build();
+    }
+}
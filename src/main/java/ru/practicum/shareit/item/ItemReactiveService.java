@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+import ru.practicum.shareit.user.UserReactiveRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующее чтение карточек вещей с датами бронирований и комментариями, собранных так же,
+ * как в ItemServiceImpl. Карточка одной вещи берется из того же ItemDetailsCache.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+public class ItemReactiveService {
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final UserReactiveRepository userReactiveRepository;
+    private final ItemDetailsCache itemDetailsCache;
+
+    // пользователь проверяется до начала ответа, пока ошибку можно вернуть статусом
+    public Mono<Long> checkOwner(String ownerStr) {
+        long ownerId = Long.parseLong(ownerStr);
+        return userReactiveRepository.existsById(ownerId)
+                .flatMap(exists -> exists ? Mono.just(ownerId) : Mono.error(new MyNotFoundException(
+                        "Владелец с id=" + ownerId + " не зарегистрирован в приложении")));
+    }
+
+    // даты и комментарии по всем вещам владельца читаются параллельно, затем вещи передаются по мере чтения
+    public Flux<ItemBookTimeDto> getAllByOwner(long ownerId) {
+        LocalDateTime now = LocalDateTime.now();
+        Mono<Map<Long, ItemBookingDatesDto>> datesByItem = itemReactiveRepository
+                .findBookingDatesByOwner(ownerId, now.minus(ItemServiceImpl.LAST_BOOKING_DELAY), now)
+                .collectMap(ItemBookingDatesDto::getItemId);
+        Mono<Map<Long, Collection<CommentDto>>> commentsByItem = itemReactiveRepository
+                .findCommentsByOwnerId(ownerId)
+                .collectMultimap(comment -> comment.getItem().getId());
+        return Mono.zip(datesByItem, commentsByItem)
+                .flatMapMany(loaded -> itemReactiveRepository.findAllByOwnerId(ownerId)
+                        .map(item -> {
+                            Collection<CommentDto> comments = loaded.getT2().get(item.getId());
+                            ItemServiceImpl.setDatesAndComments(item, loaded.getT1().get(item.getId()),
+                                    comments == null ? List.of() : List.copyOf(comments));
+                            return item;
+                        }));
+    }
+
+    public Mono<ItemBookTimeDto> getById(long itemId) {
+        return Mono.fromFuture(() -> itemDetailsCache.getAsync(itemId, () -> loadDetails(itemId).toFuture()));
+    }
+
+    private Mono<ItemDetailsCache.Entry> loadDetails(long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        Mono<ItemBookTimeDto> item = itemReactiveRepository.findById(itemId)
+                .switchIfEmpty(Mono.error(() -> new MyNotFoundException("Вещи с id=" + itemId + " не существует.")));
+        // у вещи без бронирований группировка не вернет строки
+        Mono<List<ItemBookingDatesDto>> dates = itemReactiveRepository
+                .findBookingDatesByItem(itemId, now.minus(ItemServiceImpl.LAST_BOOKING_DELAY), now)
+                .map(List::of)
+                .defaultIfEmpty(List.of());
+        Mono<List<CommentDto>> comments = itemReactiveRepository.findCommentsByItemId(itemId).collectList();
+        return Mono.zip(item, dates, comments)
+                .map(loaded -> {
+                    ItemBookingDatesDto itemDates = loaded.getT2().isEmpty() ? null : loaded.getT2().getFirst();
+                    ItemServiceImpl.setDatesAndComments(loaded.getT1(), itemDates, loaded.getT3());
+                    // версия карточки неизвестна - условный запрос пересоберет её через JPA
+                    return new ItemDetailsCache.Entry(loaded.getT1(), ItemServiceImpl.datesValidUntil(itemDates),
+                            null);
+                });
+    }
+}
@@ -1,15 +1,68 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemBatchRepository {
 
     List<Item> findAllByOwnerId(Long ownerId);
 
-    List<Item> findByNameIgnoreCaseContainingOrDescriptionIgnoreCaseContaining(String searchText1, String searchText2);
+    boolean existsByOwnerId(Long ownerId);
 
+    @Query("SELECT i.id FROM Item AS i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
+    // версия карточки вещи одним запросом по индексам вещи, её бронирований и комментариев;
+    // даты считаются так же, как в BookingRepository.findBookingDatesByItem
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemVersionDto(i.version, " +
+            "(SELECT MAX(b.end) FROM Booking AS b WHERE b.bookingItem.id = i.id AND b.end < :lastBefore), " +
+            "(SELECT MIN(b.start) FROM Booking AS b WHERE b.bookingItem.id = i.id AND b.start > :now), " +
+            "COUNT(c.id), MAX(c.id), SUM(a.version)) " +
+            "FROM Item AS i " +
+            "LEFT JOIN Comment AS c ON c.item.id = i.id " +
+            "LEFT JOIN c.author AS a " +
+            "WHERE i.id = :itemId " +
+            "GROUP BY i.id, i.version")
+    Optional<ItemVersionDto> findVersionById(long itemId, LocalDateTime lastBefore, LocalDateTime now);
+
+    // поиск доступных вещей по полнотекстовому индексу (query - выражение tsquery);
+    // более релевантные вещи идут первыми
+    @Query(value = "SELECT i.* " +
+            "FROM items AS i " +
+            "WHERE i.available " +
+            "AND i.search_vector @@ to_tsquery('russian', :query) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('russian', :query)) DESC, i.id " +
+            "LIMIT :size OFFSET :from ", nativeQuery = true)
+    List<Item> searchFullText(String query, int from, int size);
+
+    // поиск доступных вещей по подстроке (pattern для ILIKE) по триграммному индексу, без ранжирования
+    @Query(value = "SELECT i.* " +
+            "FROM items AS i " +
+            "WHERE i.available " +
+            "AND (i.item_name || ' ' || coalesce(i.item_description, '')) ILIKE :pattern " +
+            "ORDER BY i.id " +
+            "LIMIT :size OFFSET :from ", nativeQuery = true)
+    List<Item> searchSubstring(String pattern, int from, int size);
+
+    // вещи, добавленные в ответ на запросы
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    // доступные вещи других владельцев, подходящие под описание запроса (query - выражение tsquery);
+    // выбираются по GIN-индексу поискового вектора, который БД обновляет при каждом изменении вещи
+    @Query(value = "SELECT i.* " +
+            "FROM items AS i " +
+            "WHERE i.available " +
+            "AND i.search_vector @@ to_tsquery('russian', :query) " +
+            "AND i.owner_id <> :userId " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('russian', :query)) DESC, i.id " +
+            "LIMIT :size ", nativeQuery = true)
+    List<Item> findMatching(String query, Long userId, int size);
 
 }
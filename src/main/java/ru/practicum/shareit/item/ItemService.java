@@ -2,9 +2,12 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemBookTimeDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.version.ResourceVersion;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -15,9 +18,16 @@ public interface ItemService {
 
     ItemBookTimeDto getById(String ownerId, long itemId);
 
+    // версия карточки вещи для условного GET
+    ResourceVersion getVersion(String ownerId, long itemId);
+
     List<ItemBookTimeDto> getAllByOwner(String ownerId);
 
-    List<ItemDto> getSelection(String searchText);
+    ItemAvailabilityDto getAvailability(String userId, long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailabilityByOwner(String ownerId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemDto> getSelection(String searchText, int from, Integer size);
 
     CommentDto addComment(CommentCreationDto comment);
 
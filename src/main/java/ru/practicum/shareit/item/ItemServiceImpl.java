@@ -2,31 +2,48 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingArchiveRepository;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingIntervalDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.InterruptionRuleException;
 import ru.practicum.shareit.exception.MyNotFoundException;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+import ru.practicum.shareit.item.dto.ItemBookingDatesDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
 import ru.practicum.shareit.item.mapper.ItemListMapperImpl;
 import ru.practicum.shareit.item.mapper.ItemMapperImpl;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.retry.RetryOnConflict;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.version.ResourceVersion;
+import ru.practicum.shareit.version.ResourceVersions;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -34,33 +51,51 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    // бронирование считается последним через час после его окончания
+    static final Duration LAST_BOOKING_DELAY = Duration.ofHours(1);
+    // наибольшая длина периода, в котором ищутся свободные интервалы
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemAvailabilityCache itemAvailabilityCache;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final ItemMapperImpl itemMapper;
     private final ItemListMapperImpl itemListMapper;
 
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ItemDto add(String ownerStr, ItemDto itemDto) {
         long ownerId = Long.parseLong(ownerStr);
-        User owner = userRepository.findById(ownerId)
+        userService.findById(ownerId)
                 .orElseThrow(
                         () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new MyNotFoundException("Запроса с id=" + itemDto.getRequestId() + " не существует.");
+        }
         Item item = itemMapper.toModel(itemDto);
-        item.setOwner(owner);
+        // для связи достаточно ссылки на владельца, его существование уже проверено
+        item.setOwner(userRepository.getReferenceById(ownerId));
         Item itemFromRep = itemRepository.save(item);
         return itemMapper.toDto(itemFromRep);
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ItemDto update(String ownerStr, ItemDto itemDto) {
         long ownerId = Long.parseLong(ownerStr);
-        User owner = userRepository.findById(ownerId)
+        userService.findById(ownerId)
                 .orElseThrow(
                         () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
         if (itemDto.getId() == null) {
@@ -68,137 +103,248 @@ public class ItemServiceImpl implements ItemService {
         }
         Item returnedItem = itemRepository.findById(itemDto.getId())
                 .orElseThrow(() -> new MyNotFoundException("Вещи с id=" + itemDto.getId() + " не существует."));
-        if (!returnedItem.getOwner().equals(owner)) {
+        if (returnedItem.getOwner().getId() != ownerId) {
             throw new InterruptionRuleException("Редактировать Вещь может только её владелец");
         }
 
-        // Если при обновлении передаются не все поля, то отсутствующие поля берем из репозитория
-        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
-            itemDto.setName(returnedItem.getName());
+        // Обновляются только переданные поля загруженной сущности, при записи Hibernate сверит версию строки
+        if (itemDto.getName() != null && !itemDto.getName().isEmpty()) {
+            returnedItem.setName(itemDto.getName());
         }
-        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
-            itemDto.setDescription(returnedItem.getDescription());
+        if (itemDto.getDescription() != null && !itemDto.getDescription().isEmpty()) {
+            returnedItem.setDescription(itemDto.getDescription());
         }
-        if (itemDto.getAvailable() == null) {
-            itemDto.setAvailable(returnedItem.isAvailable());
+        if (itemDto.getAvailable() != null) {
+            returnedItem.setAvailable(itemDto.getAvailable());
         }
 
-        Item item = itemMapper.toModel(itemDto);
-        item.setOwner(owner);
-        Item updatedItem = itemRepository.save(item);
+        Item updatedItem = itemRepository.save(returnedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(updatedItem.getId()));
         return itemMapper.toDto(updatedItem);
     }
 
     @Override
     public ItemBookTimeDto getById(String owner, long itemId) {
+        return getDetails(owner, itemId).getItem();
+    }
+
+    // ETag - из состояния в БД одним запросом, карточка для условного запроса не собирается.
+    // Закешированная карточка другой версии (изменение зафиксировано, а сброс кеша еще не дошел) удаляется,
+    // чтобы следующий за проверкой getById не отдал карточку старше ETag
+    @Override
+    public ResourceVersion getVersion(String owner, long itemId) {
+        long ownerId = Long.parseLong(owner);
+        userService.findById(ownerId)
+                .orElseThrow(
+                        () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
+        String etag = loadEtag(itemId);
+        itemDetailsCache.invalidateOutdated(itemId, etag);
+        return resourceVersions.get(ResourceVersions.ITEMS, itemId, etag);
+    }
+
+    private String loadEtag(long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemVersionDto version = itemRepository.findVersionById(itemId, now.minus(LAST_BOOKING_DELAY), now)
+                .orElseThrow(() -> new MyNotFoundException("Вещи с id=" + itemId + " не существует."));
+        return Stream.of(version.getItemVersion(), epochSecond(version.getLastBooking()),
+                        epochSecond(version.getNextBooking()), version.getCommentCount(), version.getLastCommentId(),
+                        version.getCommentAuthorsVersion())
+                .map(value -> value == null ? "" : Long.toString(value, Character.MAX_RADIX))
+                .collect(Collectors.joining("."));
+    }
+
+    private static Long epochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private ItemDetailsCache.Entry getDetails(String owner, long itemId) {
         long ownerId = Long.parseLong(owner);
         // проверка на наличие владельца и вещи в БД
-        userRepository.findById(ownerId)
+        userService.findById(ownerId)
                 .orElseThrow(
                         () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
+        // карточка вещи собирается только при промахе кеша
+        return itemDetailsCache.get(itemId, () -> loadDetails(itemId));
+    }
+
+    private ItemDetailsCache.Entry loadDetails(long itemId) {
+        // версия читается до карточки, поэтому карточка не старше неё
+        String etag = loadEtag(itemId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new MyNotFoundException("Вещи с id=" + itemId + " не существует."));
 
         ItemBookTimeDto itemDto = itemMapper.toBookingTimeDto(item);
-        // все бронирования для одной вещи
-        List<Booking> bookings = bookingRepository.findAllByBookingItemId(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        // даты бронирований вещи одним агрегирующим запросом
+        ItemBookingDatesDto dates = bookingRepository
+                .findBookingDatesByItem(itemId, now.minus(LAST_BOOKING_DELAY), now)
+                .orElse(null);
         // все комментарии к вещи
         List<CommentDto> allItemComments = itemListMapper.toListCommentDto(
                 commentRepository.findAllByItemId(itemId));
         // добавляем даты бронирования и сомментарии через отдельный метод
-        setDatesAndComments(itemDto, bookings, allItemComments);
-        return itemDto;
-    }
-
-    private void setDatesAndComments(
-            ItemBookTimeDto item, List<Booking> bookings, List<CommentDto> allComments) {
-        // устанавливаем дефолтовые даты
-        LocalDateTime dateLastBooking = LocalDateTime.parse("2000-01-01T00:00:01",
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        LocalDateTime dateNextBooking = LocalDateTime.parse("3000-01-01T00:00:01",
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        // проверяем каждое бронирование и заполняем даты
-        for (Booking booking : bookings) {
-            if (booking.getEnd().isBefore(LocalDateTime.now().minusHours(1))
-                    && booking.getEnd().isAfter(dateLastBooking)) {
-                dateLastBooking = booking.getEnd();
-            }
-            if (booking.getStart().isAfter(LocalDateTime.now()) && booking.getStart().isBefore(dateNextBooking)) {
-                dateNextBooking = booking.getStart();
-            }
-        }
-        // если даты были заполнены то они не равны дефолтовым, значит заполняем их в dto
-        if (!dateLastBooking.equals(LocalDateTime.parse("2000-01-01T00:00:01",
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME))) {
-            item.setLastBooking(dateLastBooking);
-        }
-        if (!dateNextBooking.equals(LocalDateTime.parse("3000-01-01T00:00:01",
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME))) {
-            item.setNextBooking(dateNextBooking);
+        setDatesAndComments(itemDto, dates, allItemComments);
+        return new ItemDetailsCache.Entry(itemDto, datesValidUntil(dates), etag);
+    }
+
+    // момент, когда даты устареют: начнется ближайшее бронирование
+    // или очередное завершившееся бронирование станет последним
+    static LocalDateTime datesValidUntil(ItemBookingDatesDto dates) {
+        if (dates == null) {
+            return null;
         }
-        // проверяем каждый комментарий, относится ли он к вещи, если да, то заполняем лист comments
-        List<CommentDto> comments = new ArrayList<>();
-        for (CommentDto comment : allComments) {
-            if (item.getId().equals(comment.getItem().getId())) {
-                comments.add(comment);
+        LocalDateTime validUntil = dates.getNextBooking();
+        if (dates.getNearestEnd() != null) {
+            LocalDateTime lastRollover = dates.getNearestEnd().plus(LAST_BOOKING_DELAY);
+            if (validUntil == null || lastRollover.isBefore(validUntil)) {
+                validUntil = lastRollover;
             }
         }
+        return validUntil;
+    }
+
+    // видимость пакетная - метод измеряется JMH-бенчмарком
+    static void setDatesAndComments(ItemBookTimeDto item, ItemBookingDatesDto dates, List<CommentDto> comments) {
+        // если у вещи нет бронирований, даты остаются пустыми
+        if (dates != null) {
+            item.setLastBooking(dates.getLastBooking());
+            item.setNextBooking(dates.getNextBooking());
+        }
         item.setComments(comments);
     }
 
     @Override
     public List<ItemBookTimeDto> getAllByOwner(String owner) {
         Long ownerId = Long.parseLong(owner);
+        LocalDateTime now = LocalDateTime.now();
         // все вещи владельца
         List<Item> items = itemRepository.findAllByOwnerId(ownerId);
-        // все бронирования вещей с фильтрацией по владельцу (у одного владельца может быть несколько вещей)
-        List<Booking> bookings = bookingRepository.findAllByBookingItemOwnerIdOrderByStart(ownerId);
-        // находим все комментарии к вещам одного владельца
-        List<CommentDto> allOwnerComments = itemListMapper.toListCommentDto(
-                commentRepository.findAllByItemOwnerId(ownerId));
+        // даты последнего и ближайшего бронирования по каждой вещи владельца
+        Map<Long, ItemBookingDatesDto> datesByItem = bookingRepository
+                .findBookingDatesByOwner(ownerId, now.minus(LAST_BOOKING_DELAY), now).stream()
+                .collect(Collectors.toMap(ItemBookingDatesDto::getItemId, Function.identity()));
+        // комментарии к вещам владельца, сгруппированные по вещи за один проход
+        Map<Long, List<CommentDto>> commentsByItem = commentRepository.findAllByItemOwnerId(ownerId).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(itemMapper::toCommentDto, Collectors.toList())));
         List<ItemBookTimeDto> returnedItems = itemListMapper.toListBookingTimeDto(items);
 
         // для каждой вещи добавляем даты последнего, предстоящего бронирования и все комментарии
         for (ItemBookTimeDto item : returnedItems) {
-            List<Booking> bookingsForItem = bookings.stream()
-                    .filter(booking -> booking.getBookingItem().getId() == (item.getId()))
-                    .toList();
-            setDatesAndComments(item, bookingsForItem, allOwnerComments);
+            setDatesAndComments(item, datesByItem.get(item.getId()),
+                    commentsByItem.getOrDefault(item.getId(), new ArrayList<>()));
         }
         return returnedItems;
     }
 
     @Override
-    public List<ItemDto> getSelection(String searchText) {
-        if (searchText.isEmpty()) {
-            return Collections.emptyList();
+    public ItemAvailabilityDto getAvailability(String userStr, long itemId, LocalDateTime from, LocalDateTime to) {
+        long userId = Long.parseLong(userStr);
+        userService.findById(userId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + userId + " не существует."));
+        checkAvailabilityWindow(from, to);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new MyNotFoundException("Вещи с id=" + itemId + " не существует."));
+        return findAvailability(List.of(item), from, to).getFirst();
+    }
+
+    @Override
+    public List<ItemAvailabilityDto> getAvailabilityByOwner(String ownerStr, LocalDateTime from, LocalDateTime to) {
+        long ownerId = Long.parseLong(ownerStr);
+        userService.findById(ownerId)
+                .orElseThrow(
+                        () -> new MyNotFoundException("Владелец с id=" + ownerId + " не зарегистрирован в приложении"));
+        checkAvailabilityWindow(from, to);
+        return findAvailability(itemRepository.findAllByOwnerId(ownerId), from, to);
+    }
+
+    private static void checkAvailabilityWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new BadRequestException("Период должен быть задан параметрами from и to");
+        }
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше его окончания");
         }
-        List<Item> items = itemRepository
-                .findByNameIgnoreCaseContainingOrDescriptionIgnoreCaseContaining(searchText, searchText);
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_AVAILABILITY_WINDOW.toDays() + " дней");
+        }
+    }
 
-        return itemListMapper.toListDto(items.stream()
+    // Свободные интервалы в прошлом не ищутся: окно начинается не раньше текущей секунды.
+    // Недоступная для бронирования вещь свободных интервалов не имеет
+    private List<ItemAvailabilityDto> findAvailability(List<Item> items, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        List<Long> bookableIds = items.stream()
                 .filter(Item::isAvailable)
-                .toList()
-        );
+                .map(Item::getId)
+                .toList();
+        Map<Long, BusyIntervals> busyByItem = itemAvailabilityCache.getAll(bookableIds,
+                itemIds -> loadBusyIntervals(itemIds, now));
+        return items.stream()
+                .map(item -> new ItemAvailabilityDto(item.getId(), item.isAvailable()
+                        ? busyByItem.get(item.getId()).free(start, to)
+                        : List.of()))
+                .toList();
+    }
+
+    // бронирования, завершившиеся раньше now, не загружаются: окна всех последующих запросов начинаются позже
+    private Map<Long, BusyIntervals> loadBusyIntervals(Set<Long> itemIds, LocalDateTime now) {
+        return bookingRepository.findActiveIntervals(itemIds, now).stream()
+                .collect(Collectors.groupingBy(BookingIntervalDto::getItemId,
+                        Collectors.collectingAndThen(Collectors.toList(), BusyIntervals::merge)));
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public List<ItemDto> getSelection(String searchText, int from, Integer size) {
+        if (searchText.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (from < 0 || size != null && (size <= 0 || size > KeysetPage.MAX_SIZE)) {
+            throw new BadRequestException("Некорректные параметры страницы поиска: from=" + from + ", size=" + size);
+        }
+        // без size выдается не больше MAX_SIZE самых релевантных вещей
+        int limit = size == null ? KeysetPage.MAX_SIZE : size;
+        String query = TextSearch.allWords(searchText);
+        List<Item> items = itemRepository.searchFullText(query, from, limit);
+        // по подстроке ищется, только если по словам не нашлось ни одной вещи: ILIKE по триграммам
+        // дороже полнотекстового поиска и не ранжирует результат
+        if (items.isEmpty() && (from == 0 || itemRepository.searchFullText(query, 0, 1).isEmpty())) {
+            items = itemRepository.searchSubstring(TextSearch.likePattern(searchText), from, limit);
+        }
+        return itemListMapper.toListDto(items);
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public CommentDto addComment(CommentCreationDto commentCreationDto) {
-        List<Booking> bookings = bookingRepository.findAllByBookingAuthorIdAndBookingItemId(
-                commentCreationDto.getAuthorId(), commentCreationDto.getItemId());
+        Long authorId = commentCreationDto.getAuthorId();
+        Long itemId = commentCreationDto.getItemId();
+        List<Booking> bookings = bookingRepository.findAllByBookingAuthorIdAndBookingItemId(authorId, itemId);
 
-        Booking booking = bookings.stream().min(Comparator.comparing(Booking::getStart))
-                .orElseThrow(() -> new BadRequestException("вещь или пользователь не найдена в БД"));
-        if (booking.getStart().isAfter(LocalDateTime.now())) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean started = bookings.stream().anyMatch(booking -> !booking.getStart().isAfter(now));
+        // все архивные бронирования давно завершились, архив читается, только если начавшихся в bookings нет
+        boolean archived = !started && bookingArchiveRepository.existsByBookingAuthorIdAndBookingItemId(authorId, itemId);
+        if (bookings.isEmpty() && !archived) {
+            throw new BadRequestException("вещь или пользователь не найдена в БД");
+        }
+        if (!started && !archived) {
             throw new BadRequestException("Автор не может оставлять комметнарии к вещи пока не забронирует её.");
         }
         Comment comment = itemMapper.toCommentModel(commentCreationDto);
-        comment.setItem(bookings.getFirst().getBookingItem());
-        comment.setAuthor(bookings.getFirst().getBookingAuthor());
+        if (bookings.isEmpty()) {
+            comment.setItem(itemRepository.getReferenceById(itemId));
+            comment.setAuthor(userRepository.getReferenceById(authorId));
+        } else {
+            comment.setItem(bookings.getFirst().getBookingItem());
+            comment.setAuthor(bookings.getFirst().getBookingAuthor());
+        }
         comment.setCreated(LocalDateTime.now());
 
         commentRepository.save(comment);
+        eventPublisher.publishEvent(new ItemChangedEvent(comment.getItem().getId()));
         return itemMapper.toCommentDto(comment);
     }
 }
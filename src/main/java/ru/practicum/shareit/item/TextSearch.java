@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Выражения для поиска вещей по тексту пользователя: tsquery для полнотекстового индекса
+ * items.search_vector и шаблон ILIKE для триграммного индекса.
+ */
+public final class TextSearch {
+
+    private static final Pattern NOT_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextSearch() {
+    }
+
+    // каждое слово текста ищется как префикс основы слова: "дрел:* & аккумулятор:*"
+    public static String allWords(String text) {
+        return toTsQuery(text, " & ");
+    }
+
+    // достаточно совпадения любого слова: "нужн:* | дрел:*"; стоп-слова конфигурация russian отбрасывает
+    public static String anyWord(String text) {
+        return toTsQuery(text, " | ");
+    }
+
+    // поиск подстроки с экранированием спецсимволов LIKE
+    public static String likePattern(String text) {
+        return "%" + text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    private static String toTsQuery(String text, String operator) {
+        return Arrays.stream(NOT_WORD.split(text))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(operator));
+    }
+}
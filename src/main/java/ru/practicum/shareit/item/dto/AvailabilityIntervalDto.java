@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Свободный интервал вещи [start, end).
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AvailabilityIntervalDto {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+}
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
  * Created Shchetinin Alexander
  */
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @ToString
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Свободные интервалы вещи в запрошенном периоде, упорядоченные по началу.
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+    private List<AvailabilityIntervalDto> free;
+
+}
@@ -12,7 +12,7 @@ import java.util.List;
  * Created Shchetinin Alexander
  */
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @ToString
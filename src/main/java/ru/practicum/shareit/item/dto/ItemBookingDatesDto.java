@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Даты последнего и ближайшего бронирования вещи, вычисленные агрегирующим запросом.
+ * nearestEnd - самое раннее окончание бронирования, которое ещё не стало последним
+ */
+
+@Builder
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemBookingDatesDto {
+
+    private Long itemId;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+    private LocalDateTime nearestEnd;
+
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Null;
@@ -13,7 +14,7 @@ import ru.practicum.shareit.validator.Marker;
  * Created Shchetinin Alexander
  */
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @ToString
@@ -30,4 +31,8 @@ public class ItemDto {
     @NotNull(groups = Marker.Create.class)
     private Boolean available;
 
+    // заполняется только у вещей, добавленных в ответ на запрос
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long requestId;
+
 }
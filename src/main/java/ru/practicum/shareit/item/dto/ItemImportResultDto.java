@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Итог массовой загрузки вещей: сколько строк сохранено, сколько отклонено
+ * и причины отказа по первым отклонённым строкам
+ */
+@Builder
+@Getter
+@ToString
+public class ItemImportResultDto {
+
+    private long imported;
+    private long rejected;
+    private long durationMs;
+    private List<String> errors;
+
+}
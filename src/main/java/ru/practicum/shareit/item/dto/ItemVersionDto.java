@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Всё, от чего зависит карточка вещи, в одной строке - для ETag без сборки карточки: версия вещи,
+ * даты последнего и ближайшего бронирования на текущий момент и сводка комментариев
+ * (их число, последний id и сумма версий авторов - имя автора входит в комментарий)
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemVersionDto {
+
+    private Long itemVersion;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+    private Long commentCount;
+    private Long lastCommentId;
+    private Long commentAuthorsVersion;
+
+}
@@ -12,6 +12,7 @@ import ru.practicum.shareit.item.model.Item;
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
 
+    @Mapping(target = "version", ignore = true)
     Item toModel(ItemDto itemDto);
 
     ItemDto toDto(Item item);
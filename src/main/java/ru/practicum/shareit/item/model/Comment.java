@@ -21,11 +21,11 @@ public class Comment {
 
     private String text; // тект комментария
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item; // вещь, к которой относится коммент
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author; // автор комментария
 
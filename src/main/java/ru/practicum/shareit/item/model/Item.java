@@ -28,9 +28,16 @@ public class Item {
     private String description;
 
     @JoinColumn(name = "owner_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User owner;
 
     private boolean available;
 
+    // запрос, в ответ на который добавлена вещь
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Version
+    private Long version;
+
 }
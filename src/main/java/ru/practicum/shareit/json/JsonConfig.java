@@ -0,0 +1,47 @@
+package ru.practicum.shareit.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Быстрый режим сериализации ObjectMapper приложения: им пишутся и обычные JSON-ответы,
+ * и потоковые выгрузки NDJSON.
+ * <p>
+ * Буферы Jackson по умолчанию переиспользуются через ThreadLocal. Виртуальный поток живет один запрос,
+ * поэтому при spring.threads.virtual.enabled каждый ответ выделял бы буферы заново - для него
+ * включается общий пул.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JsonProperties.class)
+public class JsonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fastJsonCustomizer(JsonProperties properties) {
+        log.info("JSON serialization: fast={}, shared buffers={}", properties.isFast(), properties.isSharedBuffers());
+        return builder -> customize(builder, properties);
+    }
+
+    // общий для приложения и бенчмарков способ включить быстрый режим
+    public static void customize(Jackson2ObjectMapperBuilder builder, JsonProperties properties) {
+        if (properties.isFast()) {
+            builder.modulesToInstall(new BlackbirdModule());
+            // после JavaTimeModule: переопределяет его сериализатор LocalDateTime
+            builder.serializerByType(LocalDateTime.class, new LocalDateTimeIsoSerializer());
+        }
+        if (properties.isSharedBuffers()) {
+            builder.factory(JsonFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                    .build());
+        }
+    }
+}
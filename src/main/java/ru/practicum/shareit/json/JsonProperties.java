@@ -0,0 +1,21 @@
+package ru.practicum.shareit.json;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки сериализации ответов в JSON.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.json")
+public class JsonProperties {
+
+    // свойства DTO читаются сгенерированными лямбдами вместо вызовов через отражение,
+    // даты пишутся собственным сериализатором без DateTimeFormatter
+    private boolean fast;
+    // буферы вывода берутся из общего пула, а не из ThreadLocal потока запроса
+    private boolean sharedBuffers;
+
+}
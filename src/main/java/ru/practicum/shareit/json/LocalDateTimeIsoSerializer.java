@@ -0,0 +1,67 @@
+package ru.practicum.shareit.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * LocalDateTime в формате ISO_LOCAL_DATE_TIME, как у стандартного сериализатора Jackson, но цифры пишутся
+ * прямо в массив символов: без DateTimeFormatter и промежуточной строки на каждую дату.
+ * Годы вне 0..9999 и режим WRITE_DATES_AS_TIMESTAMPS отдаются стандартному сериализатору.
+ */
+public class LocalDateTimeIsoSerializer extends StdSerializer<LocalDateTime> {
+
+    // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+    private static final int MAX_LENGTH = 29;
+
+    public LocalDateTimeIsoSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999 || provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            LocalDateTimeSerializer.INSTANCE.serialize(value, gen, provider);
+            return;
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano != 0) {
+            // доли секунды без завершающих нулей, как appendFraction(NANO_OF_SECOND, 0, 9, true)
+            buffer[length++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            writeDigits(buffer, length, nano, digits);
+            length += digits;
+        }
+        gen.writeString(buffer, 0, length);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
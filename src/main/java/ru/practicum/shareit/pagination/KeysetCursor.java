@@ -0,0 +1,54 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор для постраничной выборки по ключу (position, id) в порядке убывания.
+ * Клиент получает его в заголовке ответа и передает обратно без изменений.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+
+    // позиция перед первой страницей: заведомо больше любых реальных значений
+    private static final KeysetCursor FIRST = new KeysetCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+    private final long id;
+
+    public static KeysetCursor first() {
+        return FIRST;
+    }
+
+    public static KeysetCursor of(LocalDateTime position, long id) {
+        return new KeysetCursor(position, id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Некорректный курсор постраничной выборки: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((position + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
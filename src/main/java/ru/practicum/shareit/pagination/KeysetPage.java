@@ -0,0 +1,41 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результатов и курсор для запроса следующей страницы (null, если страница последняя).
+ */
+@Getter
+@RequiredArgsConstructor
+public class KeysetPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_SIZE = 1000;
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    // без параметра size выборка не ограничивается (совместимость с прежним API)
+    public static Limit limit(Integer size) {
+        if (size == null) {
+            return Limit.unlimited();
+        }
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new BadRequestException("Размер страницы должен быть от 1 до " + MAX_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+    public static <T> KeysetPage<T> of(List<T> content, Integer size, Function<T, KeysetCursor> cursorOf) {
+        if (size == null || content.size() < size) {
+            return new KeysetPage<>(content, null);
+        }
+        return new KeysetPage<>(content, cursorOf.apply(content.getLast()).encode());
+    }
+}
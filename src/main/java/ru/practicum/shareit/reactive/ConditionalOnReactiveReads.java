@@ -0,0 +1,17 @@
+package ru.practicum.shareit.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Компонент неблокирующего чтения создается только при shareit.reactive.enabled=true.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+public @interface ConditionalOnReactiveReads {
+}
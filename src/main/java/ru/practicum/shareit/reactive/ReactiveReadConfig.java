@@ -0,0 +1,52 @@
+package ru.practicum.shareit.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Неблокирующее чтение горячих GET-списков: запрос с Accept: application/x-ndjson отдает поток сервлета
+ * сразу, строки читаются драйвером R2DBC и сериализуются в ответ по мере поступления.
+ * Запись и остальные чтения по-прежнему идут через JPA.
+ * <p>
+ * Пул R2DBC не публикуется бином ConnectionFactory: при нем автоконфигурация Spring Boot
+ * не создала бы DataSource для JPA.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnReactiveReads
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+public class ReactiveReadConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ReactiveReadProperties properties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(0) // соединения открываются по мере надобности
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+        log.info("Reactive reads enabled: {}, pool size {}", properties.getUrl(), properties.getMaxSize());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
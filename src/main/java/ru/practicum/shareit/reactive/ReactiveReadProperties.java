@@ -0,0 +1,26 @@
+package ru.practicum.shareit.reactive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки неблокирующего чтения: адрес БД для драйвера R2DBC и размер его пула соединений.
+ * Имя пользователя и пароль по умолчанию - из spring.datasource
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.reactive")
+public class ReactiveReadProperties {
+
+    private boolean enabled;
+    private String url;
+    private String username;
+    private String password;
+    private int maxSize = 10;
+    // сколько запрос ждет свободного соединения, прежде чем завершиться ошибкой
+    private Duration maxAcquireTime = Duration.ofSeconds(30);
+
+}
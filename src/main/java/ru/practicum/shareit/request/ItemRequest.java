@@ -1,7 +1,34 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
 /**
- * TODO Sprint add-item-requests.
+ * Запрос вещи: описание того, что нужно пользователю. Владельцы отвечают на запрос,
+ * добавляя вещи со ссылкой на него (items.request_id).
  */
+@Entity
+@Table(name = "requests")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@ToString(of = "id")
 public class ItemRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id", nullable = false)
+    private User requestor;
+
+    private LocalDateTime created;
 }
@@ -1,12 +1,62 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.validator.Marker;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import java.util.List;
+
+@Slf4j
 @RestController
+@RequiredArgsConstructor
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+
+    private final ItemRequestService itemRequestService;
+
+    // Создание запроса вещи; в ответе - подходящие под описание доступные вещи
+    @PostMapping
+    public ResponseEntity<ItemRequestDto> add(@RequestHeader("X-Sharer-User-Id") String requestorId,
+                                              @RequestBody @Validated(Marker.Create.class) ItemRequestDto request) {
+        log.info("==> POST /requests <== TRY TO ADD NEW REQUEST {}", request);
+        ItemRequestDto returnedRequest = itemRequestService.create(requestorId, request);
+        log.info("==> POST /requests <== ADD NEW REQUEST {} COMPLETE", returnedRequest.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(returnedRequest);
+    }
+
+    // Свои запросы пользователя с ответами, от новых к старым
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> getOwn(@RequestHeader("X-Sharer-User-Id") String requestorId) {
+        log.info("==> GET /requests <== requestor id={}", requestorId);
+        return ResponseEntity.ok().body(itemRequestService.getOwn(requestorId));
+    }
+
+    // Запросы других пользователей, от новых к старым; open=true - только те, на которые ещё не ответили.
+    // При указании size возвращается одна страница, курсор следующей - в заголовке X-Next-Cursor
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOthers(@RequestHeader("X-Sharer-User-Id") String userId,
+                                                          @RequestParam(defaultValue = "false") boolean open,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size) {
+        log.info("==> GET /requests/all?open={}&size={} <==", open, size);
+        KeysetPage<ItemRequestDto> page = itemRequestService.getOthers(userId, open, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<ItemRequestDto> getById(@RequestHeader("X-Sharer-User-Id") String userId,
+                                                  @PathVariable long requestId) {
+        log.info("==> GET /requests/{} <==", requestId);
+        return ResponseEntity.ok().body(itemRequestService.getById(userId, requestId));
+    }
 }
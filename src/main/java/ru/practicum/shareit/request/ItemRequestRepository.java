@@ -0,0 +1,40 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ленты запросов идут от новых к старым; чужие запросы выбираются постранично по ключу (created, id):
+ * cursorCreated/cursorId - последняя запись предыдущей страницы, limit - размер страницы.
+ */
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    // свои запросы пользователя
+    @Query("SELECT r " +
+            "FROM ItemRequest AS r " +
+            "WHERE r.requestor.id = :requestorId " +
+            "ORDER BY r.created DESC, r.id DESC ")
+    List<ItemRequest> findAllByRequestor(Long requestorId);
+
+    // запросы других пользователей
+    @Query("SELECT r " +
+            "FROM ItemRequest AS r " +
+            "WHERE r.requestor.id <> :userId " +
+            "AND r.created <= :cursorCreated AND (r.created < :cursorCreated OR r.id < :cursorId) " +
+            "ORDER BY r.created DESC, r.id DESC ")
+    List<ItemRequest> findAllOthers(Long userId, LocalDateTime cursorCreated, Long cursorId, Limit limit);
+
+    // открытые запросы других пользователей - на которые ещё не ответили вещью
+    @Query("SELECT r " +
+            "FROM ItemRequest AS r " +
+            "WHERE r.requestor.id <> :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM Item AS i WHERE i.requestId = r.id) " +
+            "AND r.created <= :cursorCreated AND (r.created < :cursorCreated OR r.id < :cursorId) " +
+            "ORDER BY r.created DESC, r.id DESC ")
+    List<ItemRequest> findAllOpenOthers(Long userId, LocalDateTime cursorCreated, Long cursorId, Limit limit);
+
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+
+    ItemRequestDto create(String requestorId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestDto> getOwn(String requestorId);
+
+    KeysetPage<ItemRequestDto> getOthers(String userId, boolean open, String cursor, Integer size);
+
+    ItemRequestDto getById(String userId, long requestId);
+
+}
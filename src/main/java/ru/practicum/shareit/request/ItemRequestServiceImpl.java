@@ -0,0 +1,127 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.TextSearch;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemListMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    // сколько подходящих вещей возвращается вместе с созданным запросом
+    static final int MAX_SUGGESTIONS = 10;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ItemRequestMapper itemRequestMapper;
+    private final ItemListMapperImpl itemListMapper;
+
+    // Вместе с запросом возвращаются уже существующие доступные вещи других владельцев, подходящие под описание:
+    // они ищутся по полнотекстовому индексу вещей, без перебора каталога
+    @Override
+    @Transactional
+    public ItemRequestDto create(String requestorStr, ItemRequestDto itemRequestDto) {
+        long requestorId = Long.parseLong(requestorStr);
+        userService.findById(requestorId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + requestorId + " не существует."));
+        ItemRequest itemRequest = itemRequestMapper.toModel(itemRequestDto);
+        itemRequest.setRequestor(userRepository.getReferenceById(requestorId));
+        // точность как у timestamp в БД, чтобы ответ совпадал с последующими чтениями
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        itemRequestRepository.save(itemRequest);
+
+        ItemRequestDto created = itemRequestMapper.toDto(itemRequest);
+        created.setItems(List.of());
+        created.setSuggestions(findSuggestions(itemRequest.getDescription(), requestorId));
+        log.debug("Item request id={} created with {} suggestions", created.getId(), created.getSuggestions().size());
+        return created;
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwn(String requestorStr) {
+        long requestorId = Long.parseLong(requestorStr);
+        userService.findById(requestorId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + requestorId + " не существует."));
+        return withAnswers(itemRequestRepository.findAllByRequestor(requestorId));
+    }
+
+    @Override
+    public KeysetPage<ItemRequestDto> getOthers(String userStr, boolean open, String cursor, Integer size) {
+        long userId = Long.parseLong(userStr);
+        userService.findById(userId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + userId + " не существует."));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Limit limit = KeysetPage.limit(size);
+        List<ItemRequest> requests = open
+                ? itemRequestRepository.findAllOpenOthers(userId, after.getPosition(), after.getId(), limit)
+                : itemRequestRepository.findAllOthers(userId, after.getPosition(), after.getId(), limit);
+        return KeysetPage.of(withAnswers(requests), size,
+                request -> KeysetCursor.of(request.getCreated(), request.getId()));
+    }
+
+    @Override
+    public ItemRequestDto getById(String userStr, long requestId) {
+        long userId = Long.parseLong(userStr);
+        userService.findById(userId)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + userId + " не существует."));
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new MyNotFoundException("Запроса с id=" + requestId + " не существует."));
+        return withAnswers(List.of(itemRequest)).getFirst();
+    }
+
+    // ответы на все запросы страницы - одним запросом
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ItemAnswerDto>> answersByRequest = itemRepository
+                .findAllByRequestIdIn(requests.stream().map(ItemRequest::getId).toList()).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId,
+                        Collectors.mapping(ItemRequestServiceImpl::toAnswer, Collectors.toList())));
+        return requests.stream()
+                .map(request -> {
+                    ItemRequestDto dto = itemRequestMapper.toDto(request);
+                    dto.setItems(answersByRequest.getOrDefault(request.getId(), List.of()));
+                    return dto;
+                })
+                .toList();
+    }
+
+    private List<ItemDto> findSuggestions(String description, long requestorId) {
+        String query = TextSearch.anyWord(description);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return itemListMapper.toListDto(itemRepository.findMatching(query, requestorId, MAX_SUGGESTIONS));
+    }
+
+    // владелец вещи - ленивая ссылка, её идентификатор известен без загрузки пользователя
+    private static ItemAnswerDto toAnswer(Item item) {
+        return new ItemAnswerDto(item.getId(), item.getName(), item.getOwner().getId());
+    }
+}
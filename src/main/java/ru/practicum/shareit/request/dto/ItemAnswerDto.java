@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Вещь, добавленная владельцем в ответ на запрос.
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemAnswerDto {
+
+    private Long id;
+    private String name;
+    private Long ownerId;
+
+}
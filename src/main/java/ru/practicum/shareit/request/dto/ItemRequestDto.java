@@ -1,7 +1,40 @@
 package ru.practicum.shareit.request.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.validator.Marker;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
- * TODO Sprint add-item-requests.
+ * Запрос вещи с ответами владельцев (items). При создании запроса в suggestions
+ * возвращаются уже существующие доступные вещи, подходящие под описание.
  */
+@Getter
+@Setter
+@Builder
+@ToString
 public class ItemRequestDto {
+
+    @Null(groups = Marker.Create.class, message = "При создании запроса id должно быть null.")
+    private Long id;
+
+    @NotBlank(groups = Marker.Create.class, message = "Описание запроса не может быть пустым")
+    @Size(groups = Marker.Create.class, max = 2048, message = "Описание запроса не может быть длиннее 2048 символов")
+    private String description;
+
+    private LocalDateTime created;
+
+    private List<ItemAnswerDto> items;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ItemDto> suggestions;
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+@Mapper(componentModel = "spring")
+public interface ItemRequestMapper {
+
+    @Mapping(target = "requestor", ignore = true)
+    @Mapping(target = "created", ignore = true)
+    ItemRequest toModel(ItemRequestDto itemRequestDto);
+
+    @Mapping(target = "items", ignore = true)
+    @Mapping(target = "suggestions", ignore = true)
+    ItemRequestDto toDto(ItemRequest itemRequest);
+}
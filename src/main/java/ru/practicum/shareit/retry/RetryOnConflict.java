@@ -0,0 +1,24 @@
+package ru.practicum.shareit.retry;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повтор пишущего метода при конфликте параллельных изменений (оптимистическая блокировка,
+ * взаимоблокировка, ошибка сериализации). Попыток не больше пяти, пауза между ними растет
+ * экспоненциально со случайным разбросом, чтобы конкурирующие запросы не сталкивались повторно.
+ * Перехватчик повторов стоит снаружи транзакции, поэтому каждая попытка выполняется в новой транзакции.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(retryFor = ConcurrencyFailureException.class,
+        maxAttempts = 5,
+        backoff = @Backoff(delay = 20, maxDelay = 500, multiplier = 2, random = true))
+public @interface RetryOnConflict {
+}
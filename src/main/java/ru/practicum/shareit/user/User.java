@@ -29,4 +29,7 @@ public class User {
     @NotBlank(groups = Marker.Create.class, message = "Email пользователя не может быть пустым")
     private String email;
 
+    @Version
+    private Long version;
+
 }
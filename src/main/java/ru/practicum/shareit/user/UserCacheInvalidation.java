@@ -0,0 +1,33 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.datasource.ReplicaLagInvalidation;
+
+/**
+ * Сброс кеша пользователей после фиксации изменения: до неё параллельный промах кеша
+ * загрузил бы и сохранил прежнюю строку.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidation {
+
+    private final CacheManager cacheManager;
+    private final ReplicaLagInvalidation replicaLagInvalidation;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Invalidate cached user id={}", event.getUserId());
+        Cache users = cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+        if (users != null) {
+            users.evict(event.getUserId());
+            // загруженная с отстающей реплики запись не переживет повторный сброс
+            replicaLagInvalidation.repeatAfterLag(() -> users.evict(event.getUserId()));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Событие об изменении или удалении пользователя. Публикуется внутри пишущей транзакции.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class UserChangedEvent {
+
+    private final long userId;
+
+}
@@ -6,8 +6,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validator.Marker;
+import ru.practicum.shareit.version.ResourceVersion;
 
 import java.util.Collection;
 
@@ -29,9 +31,16 @@ public class UserController {
         return ResponseEntity.ok().body(userService.getAll());
     }
 
+    // Условный запрос: при совпадении If-None-Match (или If-Modified-Since без него) - 304 после чтения
+    // одной версии строки, пользователь не загружается.
+    // Иначе checkNotModified уже выставил ETag и Last-Modified в ответ
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getById(@PathVariable long id) {
+    public ResponseEntity<UserDto> getById(@PathVariable long id, WebRequest request) {
         log.info("==> GET /user by id={} <==", id);
+        ResourceVersion version = userService.getVersion(id);
+        if (version.checkNotModified(request)) {
+            return null;
+        }
         return ResponseEntity.ok().body(userService.getById(id));
     }
 
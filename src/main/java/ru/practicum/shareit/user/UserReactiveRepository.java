@@ -0,0 +1,22 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.reactive.ConditionalOnReactiveReads;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnReactiveReads
+public class UserReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Boolean> existsById(long userId) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM users WHERE id = :userId)")
+                .bind("userId", userId)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+}
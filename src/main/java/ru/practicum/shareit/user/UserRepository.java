@@ -1,11 +1,20 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // имя, которое PostgreSQL дал ограничению UNIQUE на users.email
+    String EMAIL_CONSTRAINT = "users_email_key";
+
     List<User> getByEmail(String email);
 
+    // версия строки для ETag - без загрузки сущности
+    @Query("SELECT u.version FROM User AS u WHERE u.id = :id")
+    Optional<Long> findVersionById(long id);
+
 }
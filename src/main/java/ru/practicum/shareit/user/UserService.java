@@ -1,8 +1,10 @@
 package ru.practicum.shareit.user;
 
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.version.ResourceVersion;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
 
@@ -12,6 +14,11 @@ public interface UserService {
 
     UserDto getById(long id);
 
+    // версия пользователя для условного GET, без обращения к БД
+    ResourceVersion getVersion(long id);
+
+    Optional<UserDto> findById(long id);
+
     List<UserDto> getAll();
 
     void delete(long id);
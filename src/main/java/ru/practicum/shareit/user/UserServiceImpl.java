@@ -2,16 +2,25 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.DuplicatedException;
 import ru.practicum.shareit.exception.MyNotFoundException;
+import ru.practicum.shareit.item.ItemChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.retry.RetryOnConflict;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserListMapperImpl;
 import ru.practicum.shareit.user.mapper.UserMapperImpl;
+import ru.practicum.shareit.version.ResourceVersion;
+import ru.practicum.shareit.version.ResourceVersions;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -19,40 +28,60 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
+    public static final String USERS_CACHE = "users";
+
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
     private final UserMapperImpl userMapper;
     private final UserListMapperImpl userListMapper;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public UserDto create(UserDto userDto) {
         if (!userRepository.getByEmail(userDto.getEmail()).isEmpty()) {
             throw new DuplicatedException("Пользоватедль с таким email уже существует");
         }
         User user = userMapper.toModel(userDto);
-        User userFromRep = userRepository.save(user);
+        User userFromRep;
+        try {
+            userFromRep = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // пользователя с тем же email успела создать параллельная транзакция
+            throw duplicatedEmail(e);
+        }
         return userMapper.toDto(userFromRep);
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public UserDto update(long userId, UserDto userDto) {
         User returnedUser = userRepository.findById(userId)
                 .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + userDto.getId() + " не существует."));
 
-        User user = userMapper.toModel(userDto);
-        user.setId(userId);
-        if (user.getEmail() == null || user.getEmail().isEmpty()) {
-            user.setEmail(returnedUser.getEmail());
-        } else if (!userRepository.getByEmail(user.getEmail()).isEmpty() &&
-                !user.getEmail().equals(returnedUser.getEmail())) {
-            throw new DuplicatedException("Пользоватедль с таким email уже существует");
+        // изменяется загруженная сущность: при записи Hibernate сверит версию строки
+        if (userDto.getEmail() != null && !userDto.getEmail().isEmpty()
+                && !userDto.getEmail().equals(returnedUser.getEmail())) {
+            if (!userRepository.getByEmail(userDto.getEmail()).isEmpty()) {
+                throw new DuplicatedException("Пользоватедль с таким email уже существует");
+            }
+            returnedUser.setEmail(userDto.getEmail());
         }
-        if (user.getName() == null || user.getName().isEmpty()) {
-            user.setName(returnedUser.getName());
+        if (userDto.getName() != null && !userDto.getName().isEmpty()) {
+            returnedUser.setName(userDto.getName());
         }
 
-        User newUser = userRepository.save(user);
+        // запись выполняется здесь, а не при фиксации, чтобы занятый параллельно email вернул 409
+        User newUser;
+        try {
+            newUser = userRepository.saveAndFlush(returnedUser);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicatedEmail(e);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         return userMapper.toDto(newUser);
     }
 
@@ -63,6 +92,21 @@ public class UserServiceImpl implements UserService {
         return userMapper.toDto(user);
     }
 
+    @Override
+    public ResourceVersion getVersion(long id) {
+        Long version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + id + " не существует."));
+        return resourceVersions.get(ResourceVersions.USERS, id, String.valueOf(version));
+    }
+
+    // Проверка существования пользователя из заголовка X-Sharer-User-Id выполняется почти в каждом запросе,
+    // поэтому найденные пользователи кешируются (отсутствие пользователя не кешируется)
+    @Override
+    @Cacheable(cacheNames = USERS_CACHE, unless = "#result == null")
+    public Optional<UserDto> findById(long id) {
+        return userRepository.findById(id).map(userMapper::toDto);
+    }
+
     @Override
     public List<UserDto> getAll() {
         return userListMapper.toListDto(userRepository.findAll());
@@ -70,9 +114,22 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @RetryOnConflict
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void delete(long id) {
         userRepository.findById(id)
                 .orElseThrow(() -> new MyNotFoundException("Пользователя с id=" + id + " не существует."));
+        // вещи владельца удаляются каскадно в БД - их карточки и версии сбрасываются после фиксации
+        itemRepository.findIdsByOwnerId(id)
+                .forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
+    }
+
+    private static RuntimeException duplicatedEmail(DataIntegrityViolationException e) {
+        if (e.getMostSpecificCause().getMessage().contains(UserRepository.EMAIL_CONSTRAINT)) {
+            return new DuplicatedException("Пользоватедль с таким email уже существует");
+        }
+        return e;
     }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.version;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Версия представления ресурса для условных GET-запросов: значение ETag и время изменения.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ResourceVersion {
+
+    private final String etag;
+    private final Instant lastModified;
+
+    // Проверяет If-None-Match / If-Modified-Since и выставляет ETag и Last-Modified в ответ; true - ответить 304.
+    // Last-Modified передается с точностью до секунды: версия, выданная в текущей секунде, может смениться
+    // в ней же с тем же значением, поэтому до конца этой секунды сверяется только ETag
+    public boolean checkNotModified(WebRequest request) {
+        if (lastModified.truncatedTo(ChronoUnit.SECONDS).equals(Instant.now().truncatedTo(ChronoUnit.SECONDS))) {
+            return request.checkNotModified(etag);
+        }
+        return request.checkNotModified(etag, lastModified.toEpochMilli());
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.version;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Версии пользователей, вещей и бронирований для условных запросов. ETag строится из столбцов version строк,
+ * от которых зависит ответ (у карточки вещи - еще из дат бронирований на текущий момент), и читается из БД
+ * при каждой проверке, поэтому одинаков на всех экземплярах, переживает перезапуск и учитывает изменения,
+ * сделанные другими экземплярами приложения и фоновой задачей. Времени изменения в БД нет:
+ * для Last-Modified запоминается момент, когда этот экземпляр впервые увидел данный ETag.
+ * Вытесненная или истекшая запись получит новое время - клиент, присылающий только If-Modified-Since,
+ * один раз загрузит ресурс целиком.
+ */
+@Component
+public class ResourceVersions {
+
+    public static final String CACHE_NAME = "resourceVersions";
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String BOOKINGS = "bookings";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final long MAX_SIZE = 100_000;
+
+    private final Cache<String, ResourceVersion> versions;
+
+    public ResourceVersions(MeterRegistry meterRegistry) {
+        versions = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    // Версию нужно получить до чтения самого ресурса: тогда изменение, зафиксированное между
+    // этими шагами, даст клиенту устаревший ETag при свежем содержимом, но не наоборот
+    public ResourceVersion get(String type, long id, String etag) {
+        String key = type + "/" + id;
+        ResourceVersion known = versions.getIfPresent(key);
+        if (known != null && known.getEtag().equals(etag)) {
+            return known;
+        }
+        ResourceVersion version = new ResourceVersion(etag, Instant.now());
+        versions.put(key, version);
+        return version;
+    }
+}
@@ -0,0 +1,66 @@
+-- исходная схема: все операторы идемпотентны, поэтому на БД, созданных прежним schema.sql,
+-- миграция применяется поверх базовой версии 0 без изменений
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE IF NOT EXISTS users (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+  user_name VARCHAR(255) NOT NULL,
+  email VARCHAR(512) NOT NULL unique
+);
+
+create TABLE IF NOT EXISTS items (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+  item_name VARCHAR(255) NOT NULL,
+  item_description VARCHAR(2048),
+  owner_id BIGINT  NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  available BOOLEAN
+);
+
+-- версии строк для оптимистической блокировки (@Version)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- поисковый вектор по названию и описанию вещи; пересчитывается самой БД при каждом insert/update.
+-- конфигурация russian стеммит русские слова, а латиницу обрабатывает английским стеммером
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+  GENERATED ALWAYS AS (setweight(to_tsvector('russian', coalesce(item_name, '')), 'A') ||
+                       setweight(to_tsvector('russian', coalesce(item_description, '')), 'B')) STORED;
+
+-- индексы поиска строятся только по доступным вещам
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING gin (search_vector) WHERE available;
+CREATE INDEX IF NOT EXISTS items_search_text_trgm_idx
+  ON items USING gin ((item_name || ' ' || coalesce(item_description, '')) gin_trgm_ops) WHERE available;
+
+create TABLE IF NOT EXISTS bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  item_id BIGINT,
+  author_id BIGINT,
+  start_booking TIMESTAMP WITHOUT TIME ZONE,
+  finish_booking TIMESTAMP(0) WITHOUT TIME ZONE,
+  booking_status VARCHAR(48) CHECK (booking_status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED', 'COMPLETED')),
+  CONSTRAINT pk_booking PRIMARY KEY (id),
+  FOREIGN KEY (item_id) REFERENCES items(id),
+  FOREIGN KEY (author_id) REFERENCES users(id),
+  -- действующие бронирования одной вещи не могут пересекаться по времени [start, finish)
+  CONSTRAINT bookings_no_overlap EXCLUDE USING gist (
+    item_id WITH =,
+    tsrange(start_booking, finish_booking) WITH &&
+  ) WHERE (booking_status IN ('WAITING', 'APPROVED'))
+);
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+create TABLE IF NOT EXISTS comments (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  item_id BIGINT,
+  author_id BIGINT,
+  created TIMESTAMP WITHOUT TIME ZONE,
+  text VARCHAR(5000),
+  CONSTRAINT pk_comment PRIMARY KEY (id),
+  FOREIGN KEY (item_id) REFERENCES items(id),
+  FOREIGN KEY (author_id) REFERENCES users(id)
+);
+
+
@@ -0,0 +1,24 @@
+-- индексы под запросы репозиториев; порядок (start_booking DESC, id DESC) совпадает
+-- с сортировкой и условием постраничной выборки по ключу, поэтому страница читается из индекса без сортировки
+
+-- списки бронирований автора: ALL, CURRENT, PAST, FUTURE; комментарии (автор + вещь)
+CREATE INDEX IF NOT EXISTS bookings_author_start_idx
+  ON bookings (author_id, start_booking DESC, id DESC);
+
+-- списки бронирований автора по статусу: WAITING, REJECTED
+CREATE INDEX IF NOT EXISTS bookings_author_status_start_idx
+  ON bookings (author_id, booking_status, start_booking DESC, id DESC);
+
+-- бронирования вещей владельца, даты последнего/ближайшего бронирования вещи, проверка пакета бронирований
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx
+  ON bookings (item_id, start_booking DESC, id DESC);
+
+-- ожидающие подтверждения бронирования вещей владельца - малая доля таблицы
+CREATE INDEX IF NOT EXISTS bookings_item_waiting_idx
+  ON bookings (item_id, start_booking DESC, id DESC) WHERE booking_status = 'WAITING';
+
+-- вещи владельца
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+
+-- комментарии к вещи и к вещам владельца
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
@@ -0,0 +1,22 @@
+-- запросы вещей: пользователь описывает нужную вещь, владельцы добавляют вещи в ответ на запрос
+
+CREATE TABLE IF NOT EXISTS requests (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+  description VARCHAR(2048) NOT NULL,
+  requestor_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- свои запросы пользователя, от новых к старым
+CREATE INDEX IF NOT EXISTS requests_requestor_created_idx
+  ON requests (requestor_id, created DESC, id DESC);
+
+-- лента запросов других пользователей постранично по ключу (created, id)
+CREATE INDEX IF NOT EXISTS requests_created_idx
+  ON requests (created DESC, id DESC);
+
+-- вещь, добавленная в ответ на запрос
+ALTER TABLE items ADD COLUMN IF NOT EXISTS request_id BIGINT REFERENCES requests(id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS items_request_idx
+  ON items (request_id) WHERE request_id IS NOT NULL;
@@ -0,0 +1,36 @@
+-- жизненный цикл бронирований: фоновая задача переводит завершившиеся подтвержденные бронирования
+-- в COMPLETED, неподтвержденные к началу - в CANCELED, а давно завершенные переносит в архив
+
+-- подтвержденные бронирования по окончанию - кандидаты в COMPLETED
+CREATE INDEX IF NOT EXISTS bookings_approved_finish_idx
+  ON bookings (finish_booking) WHERE booking_status = 'APPROVED';
+
+-- ожидающие подтверждения по началу - кандидаты в CANCELED
+CREATE INDEX IF NOT EXISTS bookings_waiting_start_idx
+  ON bookings (start_booking) WHERE booking_status = 'WAITING';
+
+-- завершенные и отмененные по окончанию - кандидаты в архив
+CREATE INDEX IF NOT EXISTS bookings_finished_finish_idx
+  ON bookings (finish_booking) WHERE booking_status IN ('COMPLETED', 'CANCELED');
+
+-- архив: те же столбцы, идентификатор сохраняется из bookings
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  item_id BIGINT,
+  author_id BIGINT,
+  start_booking TIMESTAMP WITHOUT TIME ZONE,
+  finish_booking TIMESTAMP(0) WITHOUT TIME ZONE,
+  booking_status VARCHAR(48),
+  version BIGINT NOT NULL DEFAULT 0,
+  archived TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT localtimestamp,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+  FOREIGN KEY (item_id) REFERENCES items(id),
+  FOREIGN KEY (author_id) REFERENCES users(id)
+);
+
+-- архивные бронирования автора и вещей владельца: тот же порядок, что у индексов bookings
+CREATE INDEX IF NOT EXISTS bookings_archive_author_start_idx
+  ON bookings_archive (author_id, start_booking DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_archive_item_start_idx
+  ON bookings_archive (item_id, start_booking DESC, id DESC);
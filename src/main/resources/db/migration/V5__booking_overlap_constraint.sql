@@ -0,0 +1,19 @@
+-- ограничение bookings_no_overlap создается в V1 вместе с таблицей bookings, поэтому в БД, принятых
+-- за версию 0 с таблицей из прежнего schema.sql, его нет, и проверка пересечений в приложении
+-- не защищена от параллельных вставок. Добавляем ограничение, если его еще нет.
+-- Если в такой БД уже есть пересекающиеся действующие бронирования, миграция остановится
+-- с их ключами в сообщении: конфликтующие бронирования нужно отклонить до повторного запуска
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                 WHERE conrelid = 'bookings'::regclass AND conname = 'bookings_no_overlap') THEN
+    ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (
+      item_id WITH =,
+      tsrange(start_booking, finish_booking) WITH &&
+    ) WHERE (booking_status IN ('WAITING', 'APPROVED'));
+  END IF;
+END
+$$;
@@ -0,0 +1,135 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельные PATCH одной строки. Половина запросов меняет одно поле, половина - другое: если запись
+ * по устаревшей копии строки прошла бы без проверки версии, она вернула бы прежнее значение чужого поля.
+ * Каждый запрос либо применяется (200), либо отклоняется после исчерпания повторов (409).
+ * Параллельное создание пользователей с одним email создает ровно одного, остальные получают 409.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConcurrentUpdateTest extends EmbeddedPostgresTest {
+
+    private static final int REQUESTS = 16;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void concurrentUserPatchesAreNotLost() throws Exception {
+        long user = insertUser("user");
+
+        List<Integer> statuses = patchConcurrently("/users/" + user, null, i -> i % 2 == 0
+                ? "{\"name\":\"name-" + i + "\"}"
+                : "{\"email\":\"email-" + i + "@shareit.ru\"}");
+
+        String name = jdbcTemplate.queryForObject("SELECT user_name FROM users WHERE id = ?", String.class, user);
+        String email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, user);
+        assertNotLost(statuses, name, "name-", email, "email-", version("users", user));
+    }
+
+    @Test
+    void concurrentItemPatchesAreNotLost() throws Exception {
+        long owner = insertUser("owner");
+        long item = insertItem(owner, "Дрель");
+
+        List<Integer> statuses = patchConcurrently("/items/" + item, owner, i -> i % 2 == 0
+                ? "{\"name\":\"name-" + i + "\"}"
+                : "{\"description\":\"description-" + i + "\"}");
+
+        String name = jdbcTemplate.queryForObject("SELECT item_name FROM items WHERE id = ?", String.class, item);
+        String description = jdbcTemplate.queryForObject("SELECT item_description FROM items WHERE id = ?",
+                String.class, item);
+        assertNotLost(statuses, name, "name-", description, "description-", version("items", item));
+    }
+
+    @Test
+    void concurrentUserCreatesWithSameEmailConflict() throws Exception {
+        List<Integer> statuses = sendConcurrently("POST", "/users", null,
+                i -> "{\"name\":\"user-" + i + "\",\"email\":\"same@shareit.ru\"}");
+
+        // проверку email до вставки проходят сразу несколько запросов - остальных отсекает ограничение UNIQUE
+        assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status != 200).containsOnly(409);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email = 'same@shareit.ru'",
+                Long.class)).isEqualTo(1);
+    }
+
+    private void assertNotLost(List<Integer> statuses, String first, String firstPrefix,
+                               String second, String secondPrefix, long version) {
+        assertThat(statuses).allMatch(status -> status == 200 || status == 409);
+        // четные запросы меняют первое поле, нечетные - второе
+        List<Integer> applied = new ArrayList<>();
+        for (int i = 0; i < statuses.size(); i++) {
+            if (statuses.get(i) == 200) {
+                applied.add(i);
+            }
+        }
+        assertThat(applied).isNotEmpty();
+        if (applied.stream().anyMatch(i -> i % 2 == 0)) {
+            assertThat(first).startsWith(firstPrefix);
+            assertThat(applied).contains(Integer.parseInt(first.substring(firstPrefix.length())));
+        }
+        if (applied.stream().anyMatch(i -> i % 2 != 0)) {
+            assertThat(second).startsWith(secondPrefix);
+            assertThat(applied).contains(Integer.parseInt(second.substring(secondPrefix.length()).split("@")[0]));
+        }
+        // каждое примененное изменение увеличило версию ровно один раз
+        assertThat(version).isEqualTo(applied.size());
+    }
+
+    private List<Integer> patchConcurrently(String path, Long sharerId, IntFunction<String> body)
+            throws Exception {
+        return sendConcurrently("PATCH", path, sharerId, body);
+    }
+
+    private List<Integer> sendConcurrently(String method, String path, Long sharerId, IntFunction<String> body)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(REQUESTS)) {
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(body.apply(i)));
+                if (sharerId != null) {
+                    request.header("X-Sharer-User-Id", String.valueOf(sharerId));
+                }
+                HttpRequest built = request.build();
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return client.send(built, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> response : responses) {
+                statuses.add(response.get());
+            }
+            return statuses;
+        }
+    }
+
+    private long version(String table, long id) {
+        return jdbcTemplate.queryForObject("SELECT version FROM " + table + " WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Интеграционные тесты на встроенном PostgreSQL. Сервер запускается один раз на все тесты,
+ * схему создают миграции Flyway при старте контекста. Перед каждым тестом таблицы очищаются без сброса
+ * идентификаторов, чтобы кеши приложения не выдали данные предыдущих тестов под теми же id.
+ */
+public abstract class EmbeddedPostgresTest {
+
+    private static final String DATABASE = "shareit";
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedPostgresTest::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    public static String jdbcUrl() {
+        return POSTGRES.getJdbcUrl("postgres", DATABASE);
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        jdbcTemplate.execute("TRUNCATE users, items, bookings, bookings_archive, comments, requests CASCADE");
+    }
+
+    protected long insertUser(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (user_name, email) VALUES (?, ?) RETURNING id",
+                Long.class, name, name + "@shareit.ru");
+    }
+
+    protected long insertItem(long ownerId, String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO items (item_name, item_description, owner_id, available) " +
+                "VALUES (?, 'Описание', ?, true) RETURNING id", Long.class, name, ownerId);
+    }
+
+    // бронирование с началом и окончанием через заданное число часов от текущего момента
+    protected long insertBooking(long itemId, long bookerId, int startHours, int endHours, String status) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings " +
+                        "(item_id, author_id, start_booking, finish_booking, booking_status) " +
+                        "VALUES (?, ?, localtimestamp + make_interval(hours => ?), " +
+                        "localtimestamp + make_interval(hours => ?), ?) RETURNING id",
+                Long.class, itemId, bookerId, startHours, endHours, status);
+    }
+
+    protected String status(long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT booking_status FROM bookings WHERE id = ?", String.class, bookingId);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE " + DATABASE + " TEMPLATE template0 ENCODING 'UTF8' " +
+                        "LC_COLLATE 'C.utf8' LC_CTYPE 'C.utf8'");
+            }
+            return postgres;
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Не удалось запустить встроенный PostgreSQL", e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingArchiveRepository;
+import ru.practicum.shareit.booking.BookingFilter;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.StateStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Каждый запрос, объявленный в репозиториях, и каждая форма фильтра списка бронирований выполняются
+ * по индексам. Метод вызывается с пробными аргументами, его SQL перехватывается у Hibernate и проверяется
+ * через EXPLAIN (GENERIC_PLAN): в плане есть чтение по индексу и нет последовательного чтения таблиц.
+ * Таблицы заполняются объемом, при котором планировщику выгоднее индекс, чем чтение всей таблицы.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.RecordingStatementInspector")
+class QueryPlanTest extends EmbeddedPostgresTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BookingRepository.class, ItemRepository.class, CommentRepository.class, UserRepository.class,
+            ItemRequestRepository.class, BookingArchiveRepository.class);
+    private static final Set<String> INDEX_SCANS = Set.of("Index Scan", "Index Only Scan", "Bitmap Index Scan");
+
+    private static final int USERS = 2_000;
+    private static final int OWNERS = USERS / 2;
+    private static final int ITEMS = 20_000;
+    private static final int BOOKINGS = 200_000;
+    private static final int COMMENTS = 50_000;
+
+    // в расширенном протоколе драйвер принял бы $1, $2 за параметры самого EXPLAIN
+    private final JdbcTemplate explainTemplate = new JdbcTemplate(
+            new DriverManagerDataSource(jdbcUrl() + "&preferQueryMode=simple"));
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (user_name, email) " +
+                "SELECT 'user' || g, 'user' || g || '@shareit.ru' FROM generate_series(1, ?) AS g", USERS);
+        long firstUser = jdbcTemplate.queryForObject("SELECT min(id) FROM users", Long.class);
+        long firstBooker = firstUser + OWNERS;
+        jdbcTemplate.update("INSERT INTO items (item_name, item_description, owner_id, available) " +
+                "SELECT 'Вещь ' || g, 'Описание вещи ' || g, ? + g % ?, g % 10 <> 0 " +
+                "FROM generate_series(1, ?) AS g", firstUser, OWNERS, ITEMS);
+        long firstItem = jdbcTemplate.queryForObject("SELECT min(id) FROM items", Long.class);
+        // бронирования одной вещи идут слотами по 3 дня длиной 2 дня, половина в прошлом, половина в будущем
+        int slots = BOOKINGS / ITEMS;
+        jdbcTemplate.update("INSERT INTO bookings (item_id, author_id, start_booking, finish_booking, booking_status) " +
+                "SELECT ? + g % ?, ? + g % ?, s.start_booking, s.start_booking + interval '2 days', " +
+                "(array['WAITING', 'APPROVED', 'REJECTED', 'COMPLETED', 'CANCELED'])[1 + g % 5] " +
+                "FROM generate_series(0, ? - 1) AS g CROSS JOIN LATERAL (SELECT date_trunc('hour', localtimestamp) " +
+                "+ (g / ? - ?) * interval '3 days' + (g % 24) * interval '1 hour' AS start_booking) AS s",
+                firstItem, ITEMS, firstBooker, USERS - OWNERS, BOOKINGS, ITEMS, slots / 2);
+        jdbcTemplate.update("INSERT INTO comments (item_id, author_id, created, text) " +
+                "SELECT ? + g % ?, ? + g % ?, localtimestamp - (g % 365) * interval '1 day', 'Отзыв ' || g " +
+                "FROM generate_series(1, ?) AS g", firstItem, ITEMS, firstBooker, USERS - OWNERS, COMMENTS);
+        jdbcTemplate.update("INSERT INTO requests (description, requestor_id, created) " +
+                "SELECT 'Нужна вещь ' || g, ? + g % ?, localtimestamp - (g % 365) * interval '1 day' " +
+                "FROM generate_series(1, ?) AS g", firstBooker, USERS - OWNERS, ITEMS / 4);
+        jdbcTemplate.update("UPDATE items SET request_id = (SELECT min(id) FROM requests) + id % ? " +
+                "WHERE id % 8 = 0", ITEMS / 4);
+        // часть прошедших бронирований уже перенесена в архив, как это делает BookingLifecycleJob
+        jdbcTemplate.execute("WITH moved AS (DELETE FROM bookings " +
+                "WHERE id % 2 = 0 AND booking_status IN ('COMPLETED', 'CANCELED') " +
+                "AND finish_booking < localtimestamp " +
+                "RETURNING id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+                "INSERT INTO bookings_archive " +
+                "(id, item_id, author_id, start_booking, finish_booking, booking_status, version) " +
+                "SELECT * FROM moved");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws Exception {
+        SoftAssertions softly = new SoftAssertions();
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = context.getBean(repositoryType);
+            for (Method method : repositoryType.getDeclaredMethods()) {
+                if (method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                assertIndexPlan(softly, repositoryType.getSimpleName() + "." + method.getName(),
+                        () -> method.invoke(repository, arguments(method)));
+            }
+        }
+        softly.assertAll();
+    }
+
+    // запрос списка бронирований составляется из предикатов - проверяется каждая форма фильтра
+    @Test
+    void bookingFiltersUseIndexes() throws Exception {
+        SoftAssertions softly = new SoftAssertions();
+        for (BookingFilter.Role role : BookingFilter.Role.values()) {
+            for (StateStatus state : StateStatus.values()) {
+                for (Long itemId : Arrays.asList(null, 1L)) {
+                    BookingFilter filter = BookingFilter.builder()
+                            .role(role)
+                            .userId(1L)
+                            .state(state)
+                            .itemId(itemId)
+                            .now(LocalDateTime.now())
+                            .build();
+                    assertIndexPlan(softly, "findPage " + role + " " + state + (itemId == null ? "" : " itemId"),
+                            () -> bookingRepository.findPage(filter, KeysetCursor.first(), Limit.of(20)));
+                }
+            }
+            // с архивом последним выполняется запрос к bookings_archive
+            for (StateStatus state : List.of(StateStatus.ALL, StateStatus.PAST)) {
+                BookingFilter filter = BookingFilter.builder()
+                        .role(role)
+                        .userId(1L)
+                        .state(state)
+                        .includeArchived(true)
+                        .now(LocalDateTime.now())
+                        .build();
+                assertIndexPlan(softly, "findPage " + role + " " + state + " archived",
+                        () -> bookingRepository.findPage(filter, KeysetCursor.first(), Limit.of(20)));
+            }
+            BookingFilter filter = BookingFilter.builder().role(role).userId(1L).build();
+            assertIndexPlan(softly, "stream " + role, () -> bookingRepository.stream(filter));
+        }
+        softly.assertAll();
+    }
+
+    private void assertIndexPlan(SoftAssertions softly, String name, Callable<Object> call) throws Exception {
+        String sql = captureSql(name, call);
+        String plan = explainTemplate.queryForObject(
+                "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + toPositional(sql), String.class);
+        Set<String> nodes = new TreeSet<>();
+        collectScans(objectMapper.readTree(plan).get(0).get("Plan"), nodes);
+        softly.assertThat(nodes).as("%s: %s", name, sql)
+                .noneMatch(node -> node.startsWith("Seq Scan"))
+                .anyMatch(node -> INDEX_SCANS.contains(node.substring(0, node.indexOf(" on "))));
+    }
+
+    // последний SQL, выполненный вызовом; изменения откатываются
+    private String captureSql(String name, Callable<Object> call) {
+        return transactionTemplate.execute(status -> {
+            RecordingStatementInspector.clear();
+            try {
+                Object result = call.call();
+                // потоковый запрос выполняется при чтении первой строки
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.findFirst();
+                    }
+                }
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Не удалось выполнить " + name, e.getCause());
+            } catch (Exception e) {
+                throw new IllegalStateException("Не удалось выполнить " + name, e);
+            }
+            status.setRollbackOnly();
+            List<String> statements = RecordingStatementInspector.statements();
+            assertThat(statements).as("%s не выполнил SQL-запрос", name).isNotEmpty();
+            return statements.get(statements.size() - 1);
+        });
+    }
+
+    // пробные значения по типу параметра; для поиска - выражение tsquery и шаблон ILIKE
+    private static Object[] arguments(Method method) {
+        Parameter[] parameters = method.getParameters();
+        Object[] values = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameters[i].getType();
+            if (type == Long.class || type == long.class) {
+                values[i] = 1L;
+            } else if (type == Integer.class || type == int.class) {
+                values[i] = 20;
+            } else if (type == LocalDateTime.class) {
+                values[i] = LocalDateTime.now();
+            } else if (type == BookingStatus.class) {
+                values[i] = BookingStatus.WAITING;
+            } else if (type == Limit.class) {
+                values[i] = Limit.of(20);
+            } else if (Collection.class.isAssignableFrom(type)) {
+                values[i] = List.of(1L, 2L);
+            } else if (type == String.class) {
+                values[i] = parameters[i].getName().equals("pattern") ? "%дрел%" : "дрел:*";
+            } else {
+                throw new IllegalArgumentException("Нет пробного значения для параметра " + parameters[i] +
+                        " метода " + method);
+            }
+        }
+        return values;
+    }
+
+    // EXPLAIN (GENERIC_PLAN) принимает параметры только в виде $1, $2...
+    private static String toPositional(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        int index = 0;
+        boolean literal = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                literal = !literal;
+            }
+            if (c == '?' && !literal) {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // узлы чтения таблиц плана в виде "<тип узла> on <таблица>"
+    private static void collectScans(JsonNode plan, Set<String> nodes) {
+        if (plan.has("Relation Name") || plan.has("Index Name")) {
+            nodes.add(plan.path("Node Type").asText() + " on " +
+                    plan.path("Relation Name").asText(plan.path("Index Name").asText()));
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectScans(child, nodes);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Число SQL-запросов на запрос списка не должно зависеть от размера результата. Каждый случай
+ * выполняется на N и на 10·N строках; для каждого размера заводятся новые пользователи и вещи,
+ * чтобы кеши приложения в обоих прогонах были холодными.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.RecordingStatementInspector")
+@AutoConfigureMockMvc
+class StatementCountTest extends EmbeddedPostgresTest {
+
+    private static final int N = 3;
+    private static final int DAY = 24;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private int users;
+
+    @BeforeEach
+    void warmUp() throws Exception {
+        // первые запросы контекста не должны попасть в сравнение
+        Dataset dataset = seed(1);
+        statementCount(get("/bookings/owner").header("X-Sharer-User-Id", dataset.owner()));
+        statementCount(get("/items").header("X-Sharer-User-Id", dataset.owner()));
+    }
+
+    @Test
+    void bookerBookings() throws Exception {
+        assertSameStatementCount(dataset -> get("/bookings").header("X-Sharer-User-Id", dataset.booker()));
+    }
+
+    @Test
+    void ownerBookings() throws Exception {
+        assertSameStatementCount(dataset -> get("/bookings/owner").header("X-Sharer-User-Id", dataset.owner()));
+    }
+
+    @Test
+    void bookerExport() throws Exception {
+        assertSameStatementCount(dataset -> get("/bookings/export").header("X-Sharer-User-Id", dataset.booker()));
+    }
+
+    @Test
+    void ownerExport() throws Exception {
+        assertSameStatementCount(dataset -> get("/bookings/export/owner")
+                .header("X-Sharer-User-Id", dataset.owner()));
+    }
+
+    @Test
+    void ownerItems() throws Exception {
+        assertSameStatementCount(dataset -> get("/items").header("X-Sharer-User-Id", dataset.owner()));
+    }
+
+    @Test
+    void itemWithComments() throws Exception {
+        assertSameStatementCount(dataset -> get("/items/" + dataset.firstItem())
+                .header("X-Sharer-User-Id", dataset.booker()));
+    }
+
+    private void assertSameStatementCount(Function<Dataset, RequestBuilder> request) throws Exception {
+        List<String> small = statementCount(request.apply(seed(N)));
+        List<String> large = statementCount(request.apply(seed(10 * N)));
+        assertThat(large).as("SQL на %d строках: %s%nSQL на %d строках: %s", N, small, 10 * N, large)
+                .hasSameSizeAs(small);
+    }
+
+    private List<String> statementCount(RequestBuilder request) throws Exception {
+        RecordingStatementInspector.clear();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        // потоковая выгрузка пишется асинхронно - ждем её завершения
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return RecordingStatementInspector.statements();
+    }
+
+    // у владельца size вещей; у каждой вещи завершенное бронирование своего автора с его отзывом
+    // и будущее бронирование общего арендатора; к первой вещи отзывы оставляют все авторы
+    private Dataset seed(int size) {
+        long owner = insertUser("owner" + users++);
+        long booker = insertUser("booker" + users++);
+        long firstItem = 0;
+        for (int i = 0; i < size; i++) {
+            long item = insertItem(owner, "Вещь " + i);
+            firstItem = i == 0 ? item : firstItem;
+            long author = insertUser("author" + users++);
+            insertBooking(item, author, -2 * DAY, -DAY, "APPROVED");
+            insertBooking(item, booker, DAY, 2 * DAY, "WAITING");
+            insertComment(item, author);
+            if (item != firstItem) {
+                insertComment(firstItem, author);
+            }
+        }
+        return new Dataset(String.valueOf(owner), String.valueOf(booker), firstItem);
+    }
+
+    private void insertComment(long itemId, long authorId) {
+        jdbcTemplate.update("INSERT INTO comments (item_id, author_id, created, text) " +
+                "VALUES (?, ?, localtimestamp, 'Отзыв')", itemId, authorId);
+    }
+
+    private record Dataset(String owner, String booker, long firstItem) {
+    }
+}
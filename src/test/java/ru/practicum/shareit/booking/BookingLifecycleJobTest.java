@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.EmbeddedPostgresTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusDto;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// задача запускается из тестов, интервал больше времени прогона
+@SpringBootTest(properties = {
+        "shareit.booking.lifecycle.enabled=true",
+        "shareit.booking.lifecycle.interval=1h",
+        "shareit.booking.lifecycle.chunk-size=2",
+        "shareit.booking.lifecycle.max-chunks=2",
+        "shareit.booking.lifecycle.archive-after=30d"})
+class BookingLifecycleJobTest extends EmbeddedPostgresTest {
+
+    private static final int DAY = 24;
+
+    @Autowired
+    private BookingLifecycleJob job;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void completesEndedApprovedAndCancelsStartedWaitingBookings() {
+        long owner = insertUser("owner");
+        long booker = insertUser("booker");
+        long item = insertItem(owner, "Дрель");
+        long otherItem = insertItem(owner, "Пила");
+        long ended = insertBooking(item, booker, -2 * DAY, -DAY, "APPROVED");
+        long current = insertBooking(item, booker, -1, DAY, "APPROVED");
+        long started = insertBooking(otherItem, booker, -1, DAY, "WAITING");
+        long future = insertBooking(otherItem, booker, 2 * DAY, 3 * DAY, "WAITING");
+        long rejected = insertBooking(otherItem, booker, -2 * DAY, -DAY, "REJECTED");
+
+        job.run();
+
+        assertThat(status(ended)).isEqualTo("COMPLETED");
+        assertThat(status(current)).isEqualTo("APPROVED");
+        assertThat(status(started)).isEqualTo("CANCELED");
+        assertThat(status(future)).isEqualTo("WAITING");
+        assertThat(status(rejected)).isEqualTo("REJECTED");
+        // изменения задачи видны оптимистической блокировке пользовательских транзакций
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM bookings WHERE id = ?", Long.class, ended))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void processesAtMostMaxChunksPerRun() {
+        long owner = insertUser("owner");
+        long booker = insertUser("booker");
+        long item = insertItem(owner, "Дрель");
+        for (int i = 0; i < 5; i++) {
+            insertBooking(item, booker, -10 * DAY + 2 * i, -10 * DAY + 2 * i + 1, "APPROVED");
+        }
+
+        job.run();
+        assertThat(countByStatus("COMPLETED")).isEqualTo(4);
+
+        job.run();
+        assertThat(countByStatus("COMPLETED")).isEqualTo(5);
+    }
+
+    @Test
+    void skipsBookingsLockedByOtherTransactions() throws Exception {
+        long owner = insertUser("owner");
+        long booker = insertUser("booker");
+        long item = insertItem(owner, "Дрель");
+        long locked = insertBooking(item, booker, -3 * DAY, -2 * DAY - 1, "APPROVED");
+        long free = insertBooking(item, booker, -2 * DAY, -DAY, "APPROVED");
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl(), "postgres", "postgres");
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SELECT id FROM bookings WHERE id = " + locked + " FOR UPDATE");
+
+            // задача не ждет чужую транзакцию, а обрабатывает остальные строки
+            assertTimeoutPreemptively(Duration.ofSeconds(10), job::run);
+            assertThat(status(locked)).isEqualTo("APPROVED");
+            assertThat(status(free)).isEqualTo("COMPLETED");
+
+            connection.rollback();
+        }
+
+        job.run();
+        assertThat(status(locked)).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void archivesOldFinishedBookingsExceptLatestOfEachItem() {
+        long owner = insertUser("owner");
+        long booker = insertUser("booker");
+        long item = insertItem(owner, "Дрель");
+        long otherItem = insertItem(owner, "Пила");
+        long oldest = insertBooking(item, booker, -61 * DAY, -60 * DAY, "COMPLETED");
+        long older = insertBooking(item, booker, -51 * DAY, -50 * DAY, "CANCELED");
+        long latest = insertBooking(item, booker, -41 * DAY, -40 * DAY, "COMPLETED");
+        long recent = insertBooking(otherItem, booker, -11 * DAY, -10 * DAY, "COMPLETED");
+
+        job.run();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM bookings_archive ORDER BY id", Long.class))
+                .containsExactly(oldest, older);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM bookings ORDER BY id", Long.class))
+                .containsExactly(latest, recent);
+
+        String bookerId = String.valueOf(booker);
+        assertThat(ids(bookingService.getBookingsByBooker(bookerId, "PAST", null, false, null, null)
+                .getContent())).containsExactly(recent, latest);
+        assertThat(ids(bookingService.getBookingsByBooker(bookerId, "PAST", null, true, null, null)
+                .getContent())).containsExactly(recent, latest, older, oldest);
+        assertThat(ids(bookingService.getBookingsByOwner(String.valueOf(owner), "ALL", null, true, null, 3)
+                .getContent())).containsExactly(recent, latest, older);
+    }
+
+    @Test
+    void ownerCannotChangeStatusOfBookingFinishedByJob() {
+        long owner = insertUser("owner");
+        long booker = insertUser("booker");
+        long item = insertItem(owner, "Дрель");
+        long completed = insertBooking(item, booker, -2 * DAY, -DAY, "APPROVED");
+        long canceled = insertBooking(item, booker, -1, DAY, "WAITING");
+        long waiting = insertBooking(item, booker, 2 * DAY, 3 * DAY, "WAITING");
+        job.run();
+
+        String ownerId = String.valueOf(owner);
+        assertThatThrownBy(() -> bookingService.changeStatus(ownerId, statusChange(completed, false)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> bookingService.changeStatus(ownerId, statusChange(canceled, true)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(status(completed)).isEqualTo("COMPLETED");
+        assertThat(status(canceled)).isEqualTo("CANCELED");
+
+        assertThat(bookingService.changeStatus(ownerId, statusChange(waiting, true)).getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+        assertThatThrownBy(() -> bookingService.changeStatus(ownerId, statusChange(waiting, false)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private int countByStatus(String status) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE booking_status = ?",
+                Integer.class, status);
+    }
+
+    private static BookingStatusDto statusChange(long bookingId, boolean approve) {
+        return BookingStatusDto.builder().id(bookingId).approve(approve).build();
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.datasource.ReplicaLagInvalidation;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBookTimeDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemDetailsCacheTest {
+
+    private final ItemDetailsCache cache = new ItemDetailsCache(new SimpleMeterRegistry(),
+            new ReplicaLagInvalidation(Optional.empty()));
+
+    @Test
+    void callersCannotChangeCachedDetails() {
+        List<CommentDto> comments = new ArrayList<>(List.of(CommentDto.builder().id(1L).text("Хорошая").build()));
+        ItemBookTimeDto loaded = ItemBookTimeDto.builder().id(1L).name("Дрель").comments(comments).build();
+        cache.get(1L, () -> new ItemDetailsCache.Entry(loaded, null, null));
+
+        ItemBookTimeDto first = cache.get(1L, () -> null).getItem();
+        first.setName("Пила");
+        first.getComments().get(0).setText("Плохая");
+        first.getComments().add(CommentDto.builder().id(2L).build());
+
+        ItemBookTimeDto second = cache.get(1L, () -> null).getItem();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Дрель");
+        assertThat(second.getComments()).hasSize(1);
+        assertThat(second.getComments().get(0).getText()).isEqualTo("Хорошая");
+    }
+
+    @Test
+    void asyncReadsGetCopiesToo() {
+        ItemBookTimeDto loaded = ItemBookTimeDto.builder().id(1L).name("Дрель").build();
+        cache.get(1L, () -> new ItemDetailsCache.Entry(loaded, null, null));
+
+        cache.getAsync(1L, () -> null).join().setName("Пила");
+
+        assertThat(cache.getAsync(1L, () -> null).join().getName()).isEqualTo("Дрель");
+    }
+
+    @Test
+    void removesDetailsBuiltForAnotherVersion() {
+        ItemBookTimeDto loaded = ItemBookTimeDto.builder().id(1L).name("Дрель").build();
+        cache.get(1L, () -> new ItemDetailsCache.Entry(loaded, null, "1"));
+
+        cache.invalidateOutdated(1L, "1");
+        assertThat(cache.get(1L, () -> null).getEtag()).isEqualTo("1");
+
+        cache.invalidateOutdated(1L, "2");
+        ItemBookTimeDto reloaded = ItemBookTimeDto.builder().id(1L).name("Пила").build();
+        assertThat(cache.get(1L, () -> new ItemDetailsCache.Entry(reloaded, null, "2")).getItem().getName())
+                .isEqualTo("Пила");
+    }
+}